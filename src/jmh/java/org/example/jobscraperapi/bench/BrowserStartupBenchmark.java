@@ -0,0 +1,75 @@
+package org.example.jobscraperapi.bench;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a scrape pays before navigating: launching a browser per task, as the scrapers
+ * used to, against opening a context and page on a pooled browser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BrowserStartupBenchmark {
+
+    private Playwright playwright;
+    private Browser pooled;
+
+    @Setup
+    public void setUp() {
+        playwright = Playwright.create();
+        pooled = launch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pooled != null) {
+            pooled.close();
+        }
+        if (playwright != null) {
+            playwright.close();
+        }
+    }
+
+    @Benchmark
+    public void launchPerTask() {
+        Browser browser = launch();
+        try (BrowserContext context = browser.newContext()) {
+            Page page = context.newPage();
+            page.setContent("<p>ready</p>");
+        } finally {
+            browser.close();
+        }
+    }
+
+    @Benchmark
+    public void contextOnPooledBrowser() {
+        try (BrowserContext context = pooled.newContext()) {
+            Page page = context.newPage();
+            page.setContent("<p>ready</p>");
+        }
+    }
+
+    private Browser launch() {
+        return playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+    }
+}
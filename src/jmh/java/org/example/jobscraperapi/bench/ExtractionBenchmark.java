@@ -0,0 +1,108 @@
+package org.example.jobscraperapi.bench;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import com.sun.net.httpserver.HttpServer;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.scraper.SiteScraper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the job cards of a loaded result page: one driver round-trip per card and field,
+ * as the scrapers used to do, against the single in-page evaluation they do now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+
+    @Param({"computrabajo", "occ"})
+    public String site;
+
+    private HttpServer server;
+    private Playwright playwright;
+    private Browser browser;
+    private Page page;
+    private SiteScraper scraper;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = Fixtures.serve();
+        scraper = Fixtures.site(site);
+        playwright = Playwright.create();
+        browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+        page = browser.newPage();
+        page.navigate(Fixtures.url(server, site));
+        scraper.awaitResults(page);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (browser != null) {
+            browser.close();
+        }
+        if (playwright != null) {
+            playwright.close();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Benchmark
+    public List<JobPosting> perLocator() {
+        return switch (site) {
+            case "computrabajo" -> perLocator(page, "div#offersGridOfferContainer > article",
+                    "h2.fs18.fwB", "a.js-o-link.fc_base", "https://mx.computrabajo.com", "p.dIB.fs16.fc_base.mt5");
+            case "occ" -> perLocator(page, "[id^='jobcard-']", "h2", "a", "https://www.occ.com.mx", "a");
+            default -> throw new IllegalArgumentException("No per-locator baseline for " + site);
+        };
+    }
+
+    @Benchmark
+    public List<JobPosting> bulkEvaluate() {
+        return scraper.extract(page);
+    }
+
+    // The extraction loop the site scrapers had before JobCardExtractor
+    private List<JobPosting> perLocator(
+            Page page, String cardSelector, String title, String link, String prefix, String company) {
+        Locator cards = page.locator(cardSelector);
+        int count = cards.count();
+        List<JobPosting> postings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Locator card = cards.nth(i);
+            card.waitFor();
+            Map<String, String> content = new HashMap<>();
+            content.put("title", card.locator(title).first().innerText());
+            content.put("url", prefix + card.locator(link).first().getAttribute("href"));
+            content.put("company", card.locator(company).first().innerText());
+            postings.add(JobPosting.of(site, content));
+        }
+        return postings;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.jobscraperapi.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.example.jobscraperapi.scraper.SiteScraper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Recorded result pages under {@code fixtures/} on the test classpath, and a local server
+ * that hands them to a browser without touching the real sites.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static String html(String site) {
+        try (InputStream input = Fixtures.class.getResourceAsStream("/fixtures/" + site + ".html")) {
+            if (input == null) {
+                throw new IllegalArgumentException("No fixture for site " + site);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static SiteScraper site(String name) {
+        SiteRegistry registry = new SiteRegistry(new ScraperProperties(), List.of(), new ObjectMapper());
+        registry.load();
+        return registry.find(name).orElseThrow();
+    }
+
+    /**
+     * Serves every fixture at {@code /<site>} on a free local port.
+     */
+    static HttpServer serve() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String site = exchange.getRequestURI().getPath().substring(1);
+            byte[] body;
+            try {
+                body = html(site).getBytes(StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    static String url(HttpServer server, String site) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + site;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.jobscraperapi.bench;
+
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.scraper.SiteScraper;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The HTTP path without a browser: parsing a recorded result page with jsoup and
+ * applying the site selectors to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"computrabajo", "occ"})
+    public String site;
+
+    private SiteScraper scraper;
+    private String html;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        scraper = Fixtures.site(site);
+        html = Fixtures.html(site);
+        document = Jsoup.parse(html, "https://fixture.local/");
+    }
+
+    @Benchmark
+    public List<JobPosting> parseAndExtract() {
+        return scraper.extract(Jsoup.parse(html, "https://fixture.local/"));
+    }
+
+    // Selector cost alone, on an already parsed document
+    @Benchmark
+    public List<JobPosting> extractOnly() {
+        return scraper.extract(document);
+    }
+}
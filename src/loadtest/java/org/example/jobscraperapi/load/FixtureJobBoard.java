@@ -0,0 +1,174 @@
+package org.example.jobscraperapi.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.scraper.DeclarativeSiteScraper;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.example.jobscraperapi.scraper.SiteScraper;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the job boards. Serves the recorded result page of each site at
+ * {@code /<site>/...} with the requested number of cards, after a configurable latency,
+ * and answers a share of the requests with 403 or 429 like a rate-limiting board.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java@fixture-board -Dexec.args="--port=8089 --latency-ms=300 --cards=20 --forbidden-rate=0.02 --throttle-rate=0.05"
+ * </pre>
+ *
+ * Run the API with {@code --spring.profiles.active=loadtest} to point its sites here.
+ */
+public class FixtureJobBoard {
+    private final Map<String, Template> templates = new HashMap<>();
+    private final int latencyMs;
+    private final int latencyJitterMs;
+    private final int cards;
+    private final double forbiddenRate;
+    private final double throttleRate;
+
+    private final LongAdder served = new LongAdder();
+    private final LongAdder forbidden = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    FixtureJobBoard(Options options) throws IOException {
+        this.latencyMs = options.integer("latency-ms", 200);
+        this.latencyJitterMs = options.integer("latency-jitter-ms", 100);
+        this.cards = options.integer("cards", 20);
+        this.forbiddenRate = options.decimal("forbidden-rate", 0);
+        this.throttleRate = options.decimal("throttle-rate", 0);
+
+        SiteRegistry registry = new SiteRegistry(new ScraperProperties(), List.of(), new ObjectMapper());
+        registry.load();
+        for (SiteScraper site : registry.all()) {
+            if (site instanceof DeclarativeSiteScraper declarative) {
+                String html = fixture(site.name());
+                if (html != null) {
+                    templates.put(site.name(), new Template(Jsoup.parse(html), declarative.definition().getCardSelector()));
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        FixtureJobBoard board = new FixtureJobBoard(options);
+
+        int port = options.integer("port", 8089);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 512);
+        // Latency is simulated by sleeping, every request in flight needs its own thread
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", board::handle);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(0);
+            System.out.println(board.summary());
+        }));
+
+        System.out.printf("Fixture job board for %s on http://127.0.0.1:%d/<site>/%n", board.templates.keySet(), port);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String[] segments = path.split("/", 3);
+            Template template = segments.length > 1 ? templates.get(segments[1]) : null;
+            if (template == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            sleep(latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextInt(latencyJitterMs) : 0));
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < forbiddenRate) {
+                forbidden.increment();
+                respond(exchange, 403, "<html><body><h1>Access denied</h1></body></html>");
+                return;
+            }
+            if (roll < forbiddenRate + throttleRate) {
+                throttled.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 429, "<html><body><h1>Too many requests</h1></body></html>");
+                return;
+            }
+
+            served.increment();
+            respond(exchange, 200, template.render(path + "?" + exchange.getRequestURI().getRawQuery(), cards));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String html) throws IOException {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private String summary() {
+        return String.format("Served %d pages, answered %d with 403 and %d with 429",
+                served.sum(), forbidden.sum(), throttled.sum());
+    }
+
+    private static String fixture(String site) throws IOException {
+        try (InputStream input = FixtureJobBoard.class.getResourceAsStream("/fixtures/" + site + ".html")) {
+            return input == null ? null : new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A recorded page whose cards are repeated up to the requested count. Links get the
+     * requested search and card index appended, so every page yields distinct postings.
+     */
+    private record Template(Document page, String cardSelector) {
+        String render(String search, int count) {
+            Document copy = page.clone();
+            Elements originals = copy.select(cardSelector);
+            if (originals.isEmpty()) {
+                return copy.outerHtml();
+            }
+            Element container = originals.first().parent();
+            originals.remove();
+
+            String tag = URLEncoder.encode(search, StandardCharsets.UTF_8);
+            for (int i = 0; i < count; i++) {
+                Element card = originals.get(i % originals.size()).clone();
+                for (Element link : card.select("a[href]")) {
+                    // Fragments are dropped when postings are stored, the tag goes in the query
+                    String href = link.attr("href").split("#", 2)[0];
+                    link.attr("href", href + (href.contains("?") ? "&" : "?") + "fixture=" + tag + "&card=" + i);
+                }
+                container.appendChild(card);
+            }
+            return copy.outerHtml();
+        }
+    }
+}
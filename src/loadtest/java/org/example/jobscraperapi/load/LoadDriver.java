@@ -0,0 +1,273 @@
+package org.example.jobscraperapi.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many concurrent scrape sessions against the API, each one a {@code /connect}
+ * stream followed by a {@code /scrape} request, and reports throughput along with the
+ * time to the first scrape event and to the {@code complete} event.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java@load-driver -Dexec.args="--target=http://localhost:8080 --sessions=200 --concurrency=50 --keywords=java,python developer"
+ * </pre>
+ */
+public class LoadDriver {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    // Closes the event stream of sessions that run past the timeout
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final String target;
+    private final boolean stream;
+    private final Duration timeout;
+
+    LoadDriver(Options options) {
+        this.target = options.string("target", "http://localhost:8080");
+        this.stream = options.flag("stream", false);
+        this.timeout = Duration.ofSeconds(options.integer("timeout-s", 120));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options = new Options(args);
+        int sessions = options.integer("sessions", 100);
+        int concurrency = options.integer("concurrency", 20);
+        List<String> keywords = Arrays.stream(options.string("keywords", "java,python,react developer").split(","))
+                .map(String::trim)
+                .filter(keyword -> !keyword.isEmpty())
+                .toList();
+        // Distinct keywords per session keep the result cache out of the measurement
+        boolean bypassCache = options.flag("bypass-cache", false);
+
+        LoadDriver driver = new LoadDriver(options);
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<Outcome>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            String keyword = keywords.get(i % keywords.size()) + (bypassCache ? " s" + i : "");
+            futures.add(pool.submit(() -> driver.session(keyword)));
+        }
+
+        List<Outcome> outcomes = new ArrayList<>();
+        for (Future<Outcome> future : futures) {
+            try {
+                outcomes.add(future.get());
+            } catch (ExecutionException e) {
+                outcomes.add(Outcome.failed(String.valueOf(e.getCause())));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        System.out.println(new Report(outcomes, elapsed, concurrency));
+    }
+
+    Outcome session(String keywords) {
+        HttpRequest connect = HttpRequest.newBuilder(URI.create(target + "/api/jobs/connect"))
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        long opened = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = client.send(connect, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                return Outcome.failed("connect answered " + response.statusCode());
+            }
+
+            try (InputStream body = response.body()) {
+                ScheduledFuture<?> deadline = watchdog.schedule(() -> closeQuietly(body), timeout.toMillis(), TimeUnit.MILLISECONDS);
+                try {
+                    Outcome outcome = readSession(
+                            new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)), keywords, opened);
+                    return outcome.completed() || !deadline.isDone() ? outcome : timedOut();
+                } catch (IOException e) {
+                    if (deadline.isDone()) {
+                        return timedOut();
+                    }
+                    throw e;
+                } finally {
+                    deadline.cancel(false);
+                }
+            }
+        } catch (IOException e) {
+            return Outcome.failed(e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.failed("interrupted");
+        }
+    }
+
+    private Outcome readSession(BufferedReader events, String keywords, long opened)
+            throws IOException, InterruptedException {
+        long requested = 0;
+        long firstEvent = 0;
+        int postings = 0;
+        int errors = 0;
+
+        String name = null;
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = events.readLine()) != null) {
+            if (line.startsWith("event:")) {
+                name = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                data.append(line.substring(5));
+            } else if (line.isEmpty() && name != null) {
+                JsonNode payload = parse(data.toString());
+                switch (name) {
+                    case "connect" -> {
+                        requested = System.nanoTime();
+                        String failure = startScrape(payload.path("emitterId").asText(), keywords);
+                        if (failure != null) {
+                            return Outcome.failed(failure);
+                        }
+                    }
+                    case "complete" -> {
+                        long now = System.nanoTime();
+                        return new Outcome(true, firstEvent == 0 ? 0 : firstEvent - requested,
+                                now - requested, now - opened, postings, errors, null);
+                    }
+                    default -> {
+                        if (firstEvent == 0 && requested != 0) {
+                            firstEvent = System.nanoTime();
+                        }
+                        if (name.equals("job")) {
+                            postings++;
+                        } else if (name.equals("job_data")) {
+                            postings += payload.path("data").size();
+                        } else if (name.equals("error")) {
+                            errors++;
+                        }
+                    }
+                }
+                name = null;
+                data.setLength(0);
+            }
+        }
+        return Outcome.failed(requested == 0 ? "stream ended before connect" : "stream ended before complete");
+    }
+
+    // Returns why the scrape could not be started, or null once it is
+    private String startScrape(String emitterId, String keywords) throws IOException, InterruptedException {
+        String body = MAPPER.writeValueAsString(Map.of("keywords", keywords, "stream", stream));
+        HttpRequest scrape = HttpRequest.newBuilder(URI.create(target + "/api/jobs/scrape/" + emitterId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(scrape, HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() == 200 ? null : "scrape answered " + response.statusCode() + ": " + response.body();
+    }
+
+    private Outcome timedOut() {
+        return Outcome.failed("timed out after " + timeout.toSeconds() + " s");
+    }
+
+    private static JsonNode parse(String data) {
+        try {
+            return MAPPER.readTree(data);
+        } catch (IOException e) {
+            // Plain text payloads, such as error messages
+            return MAPPER.getNodeFactory().textNode(data);
+        }
+    }
+
+    private static void closeQuietly(InputStream input) {
+        try {
+            input.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * One session as seen by the client. Times are in nanoseconds from the scrape request,
+     * except {@code sessionNanos} which also counts opening the stream.
+     */
+    record Outcome(
+            boolean completed,
+            long firstEventNanos,
+            long completionNanos,
+            long sessionNanos,
+            int postings,
+            int errors,
+            String failure) {
+
+        static Outcome failed(String failure) {
+            return new Outcome(false, 0, 0, 0, 0, 0, failure);
+        }
+    }
+
+    record Report(List<Outcome> outcomes, long elapsedNanos, int concurrency) {
+
+        @Override
+        public String toString() {
+            List<Outcome> completed = outcomes.stream().filter(Outcome::completed).toList();
+            double seconds = elapsedNanos / 1e9;
+            long postings = completed.stream().mapToLong(Outcome::postings).sum();
+            long errorEvents = completed.stream().mapToLong(Outcome::errors).sum();
+            long[] firstEvent = completed.stream().mapToLong(Outcome::firstEventNanos).filter(nanos -> nanos > 0).sorted().toArray();
+            long[] completion = completed.stream().mapToLong(Outcome::completionNanos).sorted().toArray();
+
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("Sessions             %d completed, %d failed, %d concurrent%n",
+                    completed.size(), outcomes.size() - completed.size(), concurrency));
+            report.append(String.format("Wall time            %.1f s%n", seconds));
+            report.append(String.format("Throughput           %.2f sessions/s, %.1f postings/s%n",
+                    completed.size() / seconds, postings / seconds));
+            report.append(String.format("Error events         %d%n", errorEvents));
+            report.append(String.format("Time to first event  p50 %s  p99 %s  max %s%n",
+                    millis(percentile(firstEvent, 50)), millis(percentile(firstEvent, 99)), millis(percentile(firstEvent, 100))));
+            report.append(String.format("Completion time      p50 %s  p99 %s  max %s%n",
+                    millis(percentile(completion, 50)), millis(percentile(completion, 99)), millis(percentile(completion, 100))));
+            outcomes.stream()
+                    .filter(outcome -> !outcome.completed())
+                    .map(Outcome::failure)
+                    .distinct()
+                    .limit(5)
+                    .forEach(failure -> report.append("Failure              ").append(failure).append(System.lineSeparator()));
+            return report.toString();
+        }
+
+        // Nearest-rank percentile of sorted values, -1 when there are none
+        static long percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return -1;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        private static String millis(long nanos) {
+            return nanos < 0 ? "n/a" : (nanos / 1_000_000) + " ms";
+        }
+    }
+}
@@ -1,17 +1,18 @@
 package org.example.jobscraperapi;
 
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import org.springframework.boot.SpringApplication;
+import org.example.jobscraperapi.config.ScraperProperties;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.util.concurrent.Executor;
-
 @SpringBootApplication
-@EnableAsync
+@EnableScheduling
+@EnableConfigurationProperties(ScraperProperties.class)
 public class JobScraperApplication {
 
     public static void main(String[] args) {
@@ -32,14 +33,9 @@ public class JobScraperApplication {
         };
     }
 
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(3);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("JobScraper-");
-        executor.initialize();
-        return executor;
+    // Generated accessors instead of reflection when writing postings to the event streams
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
     }
-}
\ No newline at end of file
+}
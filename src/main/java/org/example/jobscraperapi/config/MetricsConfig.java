@@ -0,0 +1,54 @@
+package org.example.jobscraperapi.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.jobscraperapi.scraper.BrowserPool;
+import org.example.jobscraperapi.service.JobScraperService;
+import org.example.jobscraperapi.service.PostingIndex;
+import org.example.jobscraperapi.service.ScrapeDispatcher;
+import org.example.jobscraperapi.service.ScrapeStreamService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges of the scraping components. Tasks run on virtual threads, so what is worth
+ * watching is the work waiting for a scarce resource rather than thread pools.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder scraperGauges(
+            ScrapeDispatcher dispatcher,
+            BrowserPool browserPool,
+            JobScraperService scraperService,
+            ScrapeStreamService scrapeStreamService,
+            PostingIndex postingIndex) {
+        return registry -> {
+            Gauge.builder("scraper.dispatcher.queued", dispatcher, ScrapeDispatcher::queuedTasks)
+                    .description("Scraping tasks admitted and not started yet")
+                    .register(registry);
+            Gauge.builder("scraper.dispatcher.running", dispatcher, ScrapeDispatcher::runningTasks)
+                    .description("Scraping tasks running")
+                    .register(registry);
+            Gauge.builder("scraper.browser.pool.size", browserPool, BrowserPool::size)
+                    .description("Pooled browsers alive, leased or idle")
+                    .register(registry);
+            Gauge.builder("scraper.browser.pool.idle", browserPool, BrowserPool::idleCount)
+                    .description("Pooled browsers waiting for a task")
+                    .register(registry);
+            Gauge.builder("scraper.browser.pool.waiting", browserPool, BrowserPool::waitingTasks)
+                    .description("Tasks waiting for a pooled browser")
+                    .register(registry);
+            Gauge.builder("scraper.sessions.active", scraperService, JobScraperService::activeSessions)
+                    .description("Client scrapes in progress")
+                    .register(registry);
+            Gauge.builder("scraper.streams.active", scrapeStreamService, ScrapeStreamService::activeStreams)
+                    .description("Single-request event streams in progress")
+                    .register(registry);
+            Gauge.builder("scraper.search.postings", postingIndex, PostingIndex::size)
+                    .description("Postings in the search index")
+                    .register(registry);
+        };
+    }
+}
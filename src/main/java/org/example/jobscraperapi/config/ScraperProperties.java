@@ -0,0 +1,195 @@
+package org.example.jobscraperapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "scraper")
+public class ScraperProperties {
+    private BrowserPool browserPool = new BrowserPool();
+    private ResourceBlocking resourceBlocking = new ResourceBlocking();
+    private Politeness politeness = new Politeness();
+    private Limiter limiter = new Limiter();
+    private Deadline deadline = new Deadline();
+    private Cache cache = new Cache();
+    private Dispatcher dispatcher = new Dispatcher();
+    private Batch batch = new Batch();
+    private Enrichment enrichment = new Enrichment();
+    private Dedupe dedupe = new Dedupe();
+    private Sites sites = new Sites();
+    private Delta delta = new Delta();
+    private Prewarm prewarm = new Prewarm();
+
+    @Data
+    public static class BrowserPool {
+        // Browsers launched on startup and kept warm for the life of the context
+        private int minSize = 1;
+        // Upper bound of browsers alive at the same time (leased + idle). A lease is
+        // exclusive, so this is also how many browser tasks run at once
+        private int maxSize = 4;
+        // How long a task waits for a browser when the pool is exhausted
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+        // Period of the idle browser health check
+        private Duration healthCheckInterval = Duration.ofSeconds(30);
+        // A browser is recycled after this many leases to keep memory in check
+        private int maxLeasesPerBrowser = 100;
+    }
+
+    @Data
+    public static class ResourceBlocking {
+        // Policy used by every site without its own entry
+        private BlockingPolicy defaults = new BlockingPolicy();
+        // Per-site policies keyed by site name, replacing the defaults for that site
+        private Map<String, BlockingPolicy> sites = new HashMap<>();
+
+        public BlockingPolicy forSite(String site) {
+            return sites.getOrDefault(site, defaults);
+        }
+    }
+
+    @Data
+    public static class BlockingPolicy {
+        private boolean enabled = true;
+        // Playwright resource types aborted outright (image, media, font, stylesheet...)
+        private List<String> resourceTypes = List.of("image", "media", "font");
+        // Requests whose URL contains any of these are aborted
+        private List<String> urlPatterns = List.of();
+        // Requests whose URL contains any of these always go through
+        private List<String> allowUrlPatterns = List.of();
+    }
+
+    @Data
+    public static class Politeness {
+        // Minimum gap between two navigations to the same domain
+        private Duration minInterval = Duration.ofSeconds(1);
+        // Random extra gap added on top of the minimum
+        private Duration jitter = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class Limiter {
+        private boolean enabled = true;
+        // Share of a site's concurrency kept after a blocked or timed out page
+        private double decreaseFactor = 0.5;
+        // Pause after the first blocked or timed out page, doubled on each one in a row
+        private Duration baseBackoff = Duration.ofSeconds(2);
+        private Duration maxBackoff = Duration.ofMinutes(2);
+        // Blocked or timed out pages in a row that stop a site from being scraped
+        private int failureThreshold = 5;
+        // How long such a site is answered as unavailable before a single page probes it again
+        private Duration openDuration = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Deadline {
+        // Time a keyword scrape may take when the request does not ask for a budget
+        private Duration defaultBudget = Duration.ofMinutes(2);
+        // Longest budget a request may ask for
+        private Duration maxBudget = Duration.ofMinutes(10);
+
+        public Duration budgetFor(Integer requestedSeconds) {
+            if (requestedSeconds == null || requestedSeconds <= 0) {
+                return defaultBudget;
+            }
+            Duration requested = Duration.ofSeconds(requestedSeconds);
+            return requested.compareTo(maxBudget) < 0 ? requested : maxBudget;
+        }
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        // Results younger than this are served as they are
+        private Duration ttl = Duration.ofMinutes(10);
+        // Past the TTL results are still served for this long while they are refreshed
+        private Duration staleWhileRevalidate = Duration.ofMinutes(30);
+        private int maxEntries = 500;
+        // Estimated heap taken by the cached results
+        private long maxBytes = 64L * 1024 * 1024;
+    }
+
+    @Data
+    public static class Dispatcher {
+        // Scraping tasks running at the same time across every session, each one on a
+        // virtual thread, so browsers and per-site limits are the tighter bounds
+        private int concurrency = 64;
+        // Tasks admitted but not started yet across every session
+        private int queueCapacity = 2000;
+    }
+
+    @Data
+    public static class Batch {
+        // Pages of a site read in one run of the dispatcher, as tabs of one context on a
+        // browser leased for that run only. Runs of a site go side by side up to its limit
+        private int pagesPerContext = 20;
+        // Keyword sets accepted per batch
+        private int maxKeywordSets = 500;
+        // Time a whole batch may take, pages not done by then come back cancelled
+        private Duration budget = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Enrichment {
+        // Posting pages of a site loading side by side in one browser context
+        private int tabsPerContext = 4;
+        // Posting pages of a site fetched at the same time without a browser
+        private int httpConcurrency = 4;
+        // Postings accepted per enrichment request
+        private int maxPostings = 200;
+        // Enriched postings remembered, the least recently used are forgotten first
+        private int cacheEntries = 2000;
+        // Time one enrichment request may take, postings not read by then come back cancelled
+        private Duration budget = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Dedupe {
+        // Merge the same job posted on several sites into one posting
+        private boolean enabled = true;
+        // MinHash signatures are bands * rows values long, postings sharing any band are compared.
+        // 20 bands of 5 rows catch about half the pairs at 0.5 similarity and nearly all from 0.75 up
+        private int bands = 20;
+        private int rows = 5;
+        // Share of equal signature values from which two postings are the same job
+        private double threshold = 0.8;
+    }
+
+    @Data
+    public static class Sites {
+        // Site definitions file, a classpath: or file: location
+        private String location = "classpath:sites.json";
+        // How often a file location is checked for changes
+        private Duration reloadInterval = Duration.ofSeconds(10);
+        // Scheme and host to use instead of the ones in a site's URLs, by site name,
+        // e.g. to point a site at a local stand-in board
+        private Map<String, String> baseUrls = new HashMap<>();
+    }
+
+    @Data
+    public static class Delta {
+        // Keyword and site pairs whose posting fingerprints are remembered
+        private int maxScopes = 1000;
+        // Fingerprints kept per keyword and site, the oldest are forgotten first
+        private int maxPostingsPerScope = 5000;
+    }
+
+    @Data
+    public static class Prewarm {
+        private boolean enabled = true;
+        // How often the most requested keywords are scraped ahead of the clients
+        private Duration interval = Duration.ofMinutes(5);
+        // Keywords scraped per run, most requested first
+        private int topKeywords = 10;
+        // Result pages scraped per run at most, across every keyword and site
+        private int maxPagesPerRun = 20;
+        // Popularity kept from one run to the next, older requests weigh less and less
+        private double decay = 0.5;
+        // Distinct keywords whose popularity is tracked
+        private int maxTrackedKeywords = 1000;
+    }
+}
@@ -1,16 +1,35 @@
 package org.example.jobscraperapi.controller;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.example.jobscraperapi.model.BatchScrapeRequest;
+import org.example.jobscraperapi.model.JobPosting;
 import org.example.jobscraperapi.model.ScrapingRequest;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.example.jobscraperapi.service.BatchScrapeService;
+import org.example.jobscraperapi.service.EnrichmentService;
+import org.example.jobscraperapi.service.PostingExporter;
+import org.example.jobscraperapi.service.PostingIndex;
 import org.example.jobscraperapi.service.JobScraperService;
+import org.example.jobscraperapi.service.PrewarmCrawler;
+import org.example.jobscraperapi.service.ScrapeResultCache;
+import org.example.jobscraperapi.service.ScrapeStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
 import javax.naming.ldap.ExtendedRequest;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -23,8 +42,24 @@ import java.util.concurrent.ConcurrentHashMap;
 public class JobScraperController {
 
     private final JobScraperService scraperService;
+    private final ScrapeStreamService scrapeStreamService;
+    private final BatchScrapeService batchScrapeService;
+    private final EnrichmentService enrichmentService;
+    private final ScrapeResultCache resultCache;
+    private final PostingStore postingStore;
+    private final PostingIndex postingIndex;
+    private final PostingExporter postingExporter;
+    private final PrewarmCrawler prewarmCrawler;
+    private final MeterRegistry meterRegistry;
     private final Map<String, SseEmitter> emitters = new ConcurrentHashMap<>();
 
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("scraper.sse.emitters", emitters, Map::size)
+                .description("Open SSE connections")
+                .register(meterRegistry);
+    }
+
     // Client connects and gets an emitter ID
     @GetMapping(path = "/connect", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public SseEmitter connect() {
@@ -61,7 +96,7 @@ public class JobScraperController {
         }
 
         try {
-            scraperService.scrapeJobs(emitter, request.getKeywords());
+            scraperService.scrapeJobs(emitterId, emitter, request);
             return ResponseEntity.ok(Map.of(
                     "status", "started",
                     "message", "Scraping started with keywords: " + request.getKeywords()
@@ -72,29 +107,169 @@ public class JobScraperController {
         }
     }
 
+    // Connect and scrape in one request, e.g. /stream?keywords=java&stream=true. Events are
+    // written as the client reads them and the scrape stops when it goes away
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> stream(@ModelAttribute ScrapingRequest request) {
+        if (request.getKeywords() == null || request.getKeywords().isBlank()) {
+            return Flux.just(ServerSentEvent.builder((Object) "Keywords are required").event("error").build());
+        }
+        return scrapeStreamService.scrape(request);
+    }
+
+    // Many keyword sets scraped as one job, e.g. for a nightly run. Answers once every
+    // page is done, with the results grouped per keyword set
+    @PostMapping("/batch")
+    public ResponseEntity<?> batch(@RequestBody BatchScrapeRequest request) {
+        long startTime = System.currentTimeMillis();
+        try {
+            BatchScrapeService.Outcome outcome = batchScrapeService.scrape(
+                    request.getKeywords(), request.getBudgetSeconds());
+            return ResponseEntity.ok(Map.of(
+                    "status", "completed",
+                    "totalTime", System.currentTimeMillis() - startTime,
+                    "pages", Map.of(
+                            "planned", outcome.plannedPages(),
+                            "unique", outcome.uniquePages(),
+                            "scraped", outcome.scrapedPages()
+                    ),
+                    "results", outcome.results()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/disconnect/{emitterId}")
     public ResponseEntity<?> disconnect(@PathVariable String emitterId) {
         SseEmitter emitter = emitters.remove(emitterId);
         if (emitter != null) {
+            scraperService.endSession(emitterId);
             emitter.complete();
             return ResponseEntity.ok(Map.of("message", "Disconnected successfully"));
         }
         return ResponseEntity.notFound().build();
     }
 
+    // Stored postings, oldest first, served without scraping anything
+    @GetMapping("/postings")
+    public ResponseEntity<?> postings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String site) {
+        try {
+            return ResponseEntity.ok(postingStore.page(cursor, limit, site));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Every stored posting after the cursor as NDJSON or CSV, streamed page by page and
+    // gzipped when asked for or accepted by the client. Resume with the last ID received
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String site,
+            @RequestParam(required = false) Boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        PostingExporter.Format exportFormat = PostingExporter.Format.parse(format);
+        boolean compress = gzip != null ? gzip : acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = postingExporter.export(exportFormat, cursor, site, compress);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"postings." + exportFormat.extension() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compress) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // The export's body type is fixed for streaming, its bad requests are answered here
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // Full-text search over the stored postings, answered from the index without scraping
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String site) {
+        long start = System.nanoTime();
+        PostingIndex.Results results = postingIndex.search(q, site, limit);
+        return ResponseEntity.ok(Map.of(
+                "query", q,
+                "total", results.total(),
+                "tookMs", (System.nanoTime() - start) / 1_000_000.0,
+                "results", results.hits()
+        ));
+    }
+
+    // Description, salary and location of one posting, read from its page on demand.
+    // The URL has to be on the site's own origin, anything else is a bad request
+    @GetMapping("/details")
+    public ResponseEntity<?> details(@RequestParam String url, @RequestParam String site) {
+        return ResponseEntity.ok(enrichmentService.enrich(new JobPosting(null, null, url, site)));
+    }
+
+    // Details of many postings, streamed as each one is read
+    @PostMapping(path = "/enrich", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> enrich(@RequestBody List<JobPosting> postings) {
+        return enrichmentService.stream(postings);
+    }
+
+    @GetMapping("/details/stats")
+    public ResponseEntity<?> detailStats() {
+        return ResponseEntity.ok(enrichmentService.stats());
+    }
+
+    @GetMapping("/search/stats")
+    public ResponseEntity<?> searchStats() {
+        return ResponseEntity.ok(postingIndex.stats());
+    }
+
+    @GetMapping("/postings/stats")
+    public ResponseEntity<?> postingStats() {
+        return ResponseEntity.ok(postingStore.countBySite());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> cacheStats() {
+        return ResponseEntity.ok(resultCache.stats());
+    }
+
+    @GetMapping("/prewarm/stats")
+    public ResponseEntity<?> prewarmStats() {
+        return ResponseEntity.ok(prewarmCrawler.stats());
+    }
+
     private void configureEmitter(SseEmitter emitter, String emitterId) {
         emitter.onCompletion(() -> {
             emitters.remove(emitterId);
+            scraperService.endSession(emitterId);
             log.info("SSE completed for client: {}", emitterId);
         });
 
         emitter.onTimeout(() -> {
             emitters.remove(emitterId);
+            scraperService.endSession(emitterId);
             log.warn("SSE timeout for client: {}", emitterId);
         });
 
         emitter.onError(ex -> {
             emitters.remove(emitterId);
+            scraperService.endSession(emitterId);
             log.error("SSE error for client: {}", emitterId, ex);
         });
     }
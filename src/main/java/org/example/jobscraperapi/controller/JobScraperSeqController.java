@@ -1,6 +1,7 @@
 package org.example.jobscraperapi.controller;
 
 import org.example.jobscraperapi.model.ScrapingRequest;
+import org.example.jobscraperapi.model.SiteResult;
 import org.example.jobscraperapi.service.JobScraperSequentialService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,7 +29,7 @@ public class JobScraperSeqController {
     ) {
         try {
             // Call sequential scraping
-            List<Map<String, Object>> response;
+            List<SiteResult> response;
             long startTime = System.currentTimeMillis();
 
             response = scraperSequentialService.scrapeJobs(request.getKeywords());
@@ -0,0 +1,60 @@
+package org.example.jobscraperapi.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.scraper.HttpSiteFetcher;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.example.jobscraperapi.scraper.SiteScraper;
+import org.example.jobscraperapi.service.SiteLimiter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sites")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class SiteController {
+    private final SiteRegistry siteRegistry;
+    private final HttpSiteFetcher httpFetcher;
+    private final SiteLimiter siteLimiter;
+
+    @GetMapping
+    public ResponseEntity<?> listSites() {
+        Map<String, Map<String, Object>> modes = httpFetcher.stats();
+        List<Map<String, Object>> sites = siteRegistry.all().stream()
+                .map(site -> describe(site, modes.getOrDefault(site.name(), Map.of())))
+                .toList();
+        return ResponseEntity.ok(sites);
+    }
+
+    // Picks up edited site definitions right away instead of waiting for the file check
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload() {
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "status", "reloaded",
+                    "sites", siteRegistry.reload()
+            ));
+        } catch (Exception e) {
+            log.error("Could not reload site definitions", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private Map<String, Object> describe(SiteScraper site, Map<String, Object> modes) {
+        return Map.of(
+                "name", site.name(),
+                "pageDepth", site.pageDepth(),
+                "maxConcurrency", site.maxConcurrency(),
+                "timeoutMs", site.timeout().toMillis(),
+                "fetchMode", site.httpFetchable() ? "http" : "browser",
+                "modes", modes,
+                "limiter", siteLimiter.stats(site.name(), site.maxConcurrency())
+        );
+    }
+}
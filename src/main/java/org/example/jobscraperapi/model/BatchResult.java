@@ -0,0 +1,12 @@
+package org.example.jobscraperapi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Result pages of one keyword set of a batch scrape, in the same order as a single
+ * scrape of those keywords would give them.
+ */
+public record BatchResult(String keywords, @JsonProperty("data") List<SiteResult> results) {
+}
@@ -0,0 +1,13 @@
+package org.example.jobscraperapi.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchScrapeRequest {
+    // One entry per search, each one a keyword string as typed in the form
+    private List<String> keywords;
+    // Seconds the whole batch may take, capped by scraper.batch.budget
+    private Integer budgetSeconds;
+}
@@ -0,0 +1,59 @@
+package org.example.jobscraperapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A posting together with the fields read from its own page, such as description,
+ * salary and location. Details are empty unless the status is "success".
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"posting", "status", "message", "mode", "details"})
+public record EnrichedPosting(
+        JobPosting posting,
+        String status,
+        String message,
+        String mode,
+        @JsonInclude(JsonInclude.Include.ALWAYS) Map<String, String> details) {
+
+    // The posting's site has no detail fields, or the posting has no URL
+    public static final String UNSUPPORTED = "unsupported";
+
+    public EnrichedPosting {
+        // Fields missing from the page are left out rather than written as null
+        details = details == null ? Map.of() : details.entrySet().stream()
+                .filter(entry -> entry.getValue() != null)
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public static EnrichedPosting success(JobPosting posting, String mode, Map<String, String> details) {
+        return new EnrichedPosting(posting, SiteResult.SUCCESS, null, mode, details);
+    }
+
+    public static EnrichedPosting failed(JobPosting posting, String message) {
+        return new EnrichedPosting(posting, SiteResult.FAILED, message, null, null);
+    }
+
+    public static EnrichedPosting timedOut(JobPosting posting, String message) {
+        return new EnrichedPosting(posting, SiteResult.TIMED_OUT, message, null, null);
+    }
+
+    public static EnrichedPosting blocked(JobPosting posting, String message) {
+        return new EnrichedPosting(posting, SiteResult.BLOCKED, message, null, null);
+    }
+
+    public static EnrichedPosting cancelled(JobPosting posting, String message) {
+        return new EnrichedPosting(posting, SiteResult.CANCELLED, message, null, null);
+    }
+
+    public static EnrichedPosting unsupported(JobPosting posting, String message) {
+        return new EnrichedPosting(posting, UNSUPPORTED, message, null, null);
+    }
+
+    public boolean isSuccess() {
+        return SiteResult.SUCCESS.equals(status);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.jobscraperapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One job card as read from a result page. Fields the card did not have are null and
+ * left out of the JSON. Sources lists the URLs of every site the same job was found on,
+ * this posting's own first, and is only set once copies from other sites were merged in.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"title", "company", "url", "site", "sources"})
+public record JobPosting(String title, String company, String url, String site, List<String> sources) {
+
+    public JobPosting {
+        sources = sources == null ? null : List.copyOf(sources);
+    }
+
+    public JobPosting(String title, String company, String url, String site) {
+        this(title, company, url, site, null);
+    }
+
+    /**
+     * Builds a posting from the field values read by a site's selectors.
+     */
+    public static JobPosting of(String site, Map<String, String> fields) {
+        return new JobPosting(fields.get("title"), fields.get("company"), fields.get("url"), site);
+    }
+
+    public JobPosting withSources(List<String> sources) {
+        return new JobPosting(title, company, url, site, sources);
+    }
+}
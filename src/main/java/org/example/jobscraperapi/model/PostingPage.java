@@ -0,0 +1,10 @@
+package org.example.jobscraperapi.model;
+
+import java.util.List;
+
+/**
+ * One page of stored postings. Pass nextCursor back to get the following page, it is
+ * null once the end has been reached.
+ */
+public record PostingPage(List<StoredPosting> postings, String nextCursor) {
+}
@@ -7,4 +7,12 @@ public class ScrapingRequest {
     // The request contains a string containing all the keywords that
     // the user types in the form
     private String keywords;
+    // Send every posting as its own event instead of one batch per result page
+    private boolean stream;
+    // Only send postings that are new or changed, and stop paging a site at the first page without any
+    private boolean delta;
+    // Delta baseline: the "since" of the previous run's complete event, epoch millis
+    private Long since;
+    // Seconds the whole scrape may take, pages still running after that are cancelled
+    private Integer budgetSeconds;
 }
\ No newline at end of file
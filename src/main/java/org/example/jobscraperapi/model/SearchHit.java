@@ -0,0 +1,16 @@
+package org.example.jobscraperapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * A stored posting matching a search, with its BM25 score.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"title", "company", "url", "site", "score"})
+public record SearchHit(String title, String company, String url, String site, double score) {
+
+    public static SearchHit of(JobPosting posting, double score) {
+        return new SearchHit(posting.title(), posting.company(), posting.url(), posting.site(), score);
+    }
+}
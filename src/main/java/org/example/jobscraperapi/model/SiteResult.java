@@ -0,0 +1,98 @@
+package org.example.jobscraperapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * Outcome of scraping one result page of a site. Postings go out as "data", the name
+ * clients have always read them from; flags left at their defaults are not written.
+ */
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+@JsonPropertyOrder({"site", "page", "url", "status", "message", "mode", "cached", "stale", "duplicates", "unchanged", "timestamp", "data"})
+public record SiteResult(
+        String site,
+        int page,
+        String url,
+        String status,
+        String message,
+        String mode,
+        boolean cached,
+        boolean stale,
+        int duplicates,
+        int unchanged,
+        long timestamp,
+        @JsonProperty("data") @JsonInclude(JsonInclude.Include.ALWAYS) List<JobPosting> postings) {
+
+    public static final String SUCCESS = "success";
+    public static final String BLOCKED = "blocked";
+    public static final String FAILED = "failed";
+    // The page did not load within the site's timeout, which sites under load push back with
+    public static final String TIMED_OUT = "timeout";
+    public static final String ERROR = "error";
+    // Not scraped at all, the site kept refusing requests and is left alone for a while
+    public static final String UNAVAILABLE = "unavailable";
+    // Stopped before it finished, the client went away or the request ran out of time
+    public static final String CANCELLED = "cancelled";
+
+    public SiteResult {
+        postings = postings == null ? List.of() : List.copyOf(postings);
+    }
+
+    public static SiteResult success(String site, String url, List<JobPosting> postings) {
+        return new SiteResult(site, 0, url, SUCCESS, "", null, false, false, 0, 0, System.currentTimeMillis(), postings);
+    }
+
+    public static SiteResult blocked(String site, String url, String message) {
+        return new SiteResult(site, 0, url, BLOCKED, message, null, false, false, 0, 0, System.currentTimeMillis(), List.of());
+    }
+
+    public static SiteResult failed(String site, String url, String message) {
+        return new SiteResult(site, 0, url, FAILED, message, null, false, false, 0, 0, System.currentTimeMillis(), List.of());
+    }
+
+    public static SiteResult timedOut(String site, String url, String message) {
+        return new SiteResult(site, 0, url, TIMED_OUT, message, null, false, false, 0, 0, System.currentTimeMillis(), List.of());
+    }
+
+    public static SiteResult error(String site, String url, String message) {
+        return new SiteResult(site, 0, url, ERROR, message, null, false, false, 0, 0, System.currentTimeMillis(), List.of());
+    }
+
+    public static SiteResult unavailable(String site, String url, String message) {
+        return new SiteResult(site, 0, url, UNAVAILABLE, message, null, false, false, 0, 0, System.currentTimeMillis(), List.of());
+    }
+
+    public static SiteResult cancelled(String site, String url, String message) {
+        return new SiteResult(site, 0, url, CANCELLED, message, null, false, false, 0, 0, System.currentTimeMillis(), List.of());
+    }
+
+    public boolean isSuccess() {
+        return SUCCESS.equals(status);
+    }
+
+    public SiteResult withPage(int page) {
+        return new SiteResult(site, page, url, status, message, mode, cached, stale, duplicates, unchanged, timestamp, postings);
+    }
+
+    public SiteResult withMode(String mode) {
+        return new SiteResult(site, page, url, status, message, mode, cached, stale, duplicates, unchanged, timestamp, postings);
+    }
+
+    public SiteResult asCached(boolean stale) {
+        return new SiteResult(site, page, url, status, message, mode, true, stale, duplicates, unchanged, timestamp, postings);
+    }
+
+    // Postings left after dropping the ones already sent, the rest are counted as duplicates
+    public SiteResult withPostings(List<JobPosting> postings, int duplicates) {
+        return new SiteResult(site, page, url, status, message, mode, cached, stale, duplicates, unchanged, timestamp, postings);
+    }
+
+    // Delta scrapes: only new or changed postings, the rest are counted as unchanged
+    public SiteResult withFreshPostings(List<JobPosting> fresh) {
+        return new SiteResult(site, page, url, status, message, mode, cached, stale, duplicates,
+                postings.size() - fresh.size(), timestamp, fresh);
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.jobscraperapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * A posting kept in the store, with when it was first and last scraped.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StoredPosting(
+        long id,
+        String title,
+        String company,
+        String url,
+        String site,
+        Instant firstSeen,
+        Instant lastSeen) {
+
+    public JobPosting posting() {
+        return new JobPosting(title, company, url, site);
+    }
+}
@@ -0,0 +1,211 @@
+package org.example.jobscraperapi.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.PostingPage;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.model.StoredPosting;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Every posting ever scraped, one row per normalized URL. Scraping the same posting
+ * again only moves its last-seen time and refreshes title and company.
+ */
+@Repository
+@Slf4j
+public class PostingStore {
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String UPSERT = """
+            MERGE INTO job_postings p
+            USING (VALUES (CAST(? AS CHAR(64)), CAST(? AS VARCHAR(2048)), CAST(? AS VARCHAR(1000)),
+                           CAST(? AS VARCHAR(1000)), CAST(? AS VARCHAR(100)), CAST(? AS TIMESTAMP)))
+                AS s (url_hash, url, title, company, site, seen_at)
+            ON p.url_hash = s.url_hash
+            WHEN MATCHED THEN UPDATE SET title = s.title, company = s.company, last_seen = s.seen_at
+            WHEN NOT MATCHED THEN INSERT (url_hash, url, title, company, site, first_seen, last_seen)
+                VALUES (s.url_hash, s.url, s.title, s.company, s.site, s.seen_at, s.seen_at)
+            """;
+
+    private static final RowMapper<StoredPosting> ROW_MAPPER = (rs, rowNum) -> new StoredPosting(
+            rs.getLong("id"),
+            rs.getString("title"),
+            rs.getString("company"),
+            rs.getString("url"),
+            rs.getString("site"),
+            rs.getTimestamp("first_seen").toInstant(),
+            rs.getTimestamp("last_seen").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    // Told about every batch of postings written, e.g. to keep the search index up to date
+    private final List<Consumer<List<JobPosting>>> listeners = new CopyOnWriteArrayList<>();
+
+    public PostingStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Registers a listener called with the postings of every successful save, once they
+     * are written.
+     */
+    public void onSaved(Consumer<List<JobPosting>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stores the postings of a successful result. A storage failure is logged and never
+     * fails the scrape that produced them.
+     */
+    public void record(SiteResult result) {
+        if (!result.isSuccess()) {
+            return;
+        }
+        try {
+            save(result.postings());
+        } catch (DataAccessException e) {
+            log.warn("Could not store postings of {}", result.url(), e);
+        }
+    }
+
+    /**
+     * Inserts new postings and touches known ones. Postings without a URL cannot be told
+     * apart and are skipped. Returns how many rows were written.
+     */
+    public int save(List<JobPosting> postings) {
+        // Last one wins when a page lists the same posting twice
+        Map<String, JobPosting> byHash = new LinkedHashMap<>();
+        for (JobPosting posting : postings) {
+            if (posting.url() != null && !posting.url().isBlank() && posting.url().length() <= 2048) {
+                byHash.put(urlHash(posting.url()), posting);
+            }
+        }
+        if (byHash.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(byHash.size());
+        byHash.forEach((hash, posting) -> rows.add(new Object[]{
+                hash, posting.url(), truncate(posting.title()), truncate(posting.company()), posting.site(), now
+        }));
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+
+        List<JobPosting> saved = List.copyOf(byHash.values());
+        for (Consumer<List<JobPosting>> listener : listeners) {
+            try {
+                listener.accept(saved);
+            } catch (RuntimeException e) {
+                log.warn("Posting listener failed", e);
+            }
+        }
+        return rows.size();
+    }
+
+    /**
+     * Postings in insertion order after the cursor, optionally of one site only.
+     */
+    public PostingPage page(String cursor, int limit, String site) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long after = parseCursor(cursor);
+
+        // One extra row tells whether there is a next page
+        List<StoredPosting> rows = site == null
+                ? jdbcTemplate.query(
+                        "SELECT * FROM job_postings WHERE id > ? ORDER BY id LIMIT ?",
+                        ROW_MAPPER, after, size + 1)
+                : jdbcTemplate.query(
+                        "SELECT * FROM job_postings WHERE site = ? AND id > ? ORDER BY id LIMIT ?",
+                        ROW_MAPPER, site, after, size + 1);
+
+        if (rows.size() <= size) {
+            return new PostingPage(rows, null);
+        }
+        List<StoredPosting> page = rows.subList(0, size);
+        return new PostingPage(List.copyOf(page), String.valueOf(page.get(size - 1).id()));
+    }
+
+    public Map<String, Long> countBySite() {
+        return jdbcTemplate.query("SELECT site, COUNT(*) AS postings FROM job_postings GROUP BY site",
+                        (rs, rowNum) -> Map.entry(rs.getString("site"), rs.getLong("postings")))
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * SHA-256 of the normalized URL: lower-case scheme and host, no fragment, no
+     * tracking parameters and no trailing slash.
+     */
+    public static String urlHash(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalizeUrl(url).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static String normalizeUrl(String url) {
+        String trimmed = url.trim();
+        try {
+            URI uri = URI.create(trimmed);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return trimmed;
+            }
+
+            String query = uri.getRawQuery() == null ? null : List.of(uri.getRawQuery().split("&")).stream()
+                    .filter(parameter -> !parameter.toLowerCase(Locale.ROOT).startsWith("utm_"))
+                    .collect(Collectors.joining("&"));
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+            if (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+
+            return uri.getScheme().toLowerCase(Locale.ROOT) + "://"
+                    + uri.getHost().toLowerCase(Locale.ROOT)
+                    + (uri.getPort() == -1 ? "" : ":" + uri.getPort())
+                    + path
+                    + (query == null || query.isEmpty() ? "" : "?" + query);
+        } catch (IllegalArgumentException e) {
+            return trimmed;
+        }
+    }
+
+    /**
+     * The ID a cursor points after, 0 for none. Throws IllegalArgumentException when the
+     * cursor is not one handed out by this store.
+     */
+    public static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= 1000 ? value : value.substring(0, 1000);
+    }
+}
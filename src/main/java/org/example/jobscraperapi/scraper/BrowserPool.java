@@ -0,0 +1,307 @@
+package org.example.jobscraperapi.scraper;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps warm Playwright/Chromium instances alive for the life of the application.
+ *
+ * Playwright objects are not thread safe, so a browser is leased to exactly one task
+ * at a time. The task gets fresh, isolated {@link BrowserContext}s from its lease and
+ * the browser goes back to the pool once the lease is closed. Leases are handed out
+ * through a fair semaphore, so tasks waiting for a browser are served in arrival order.
+ *
+ * The exclusivity is kept on purpose. Every call on a browser, its contexts and pages
+ * goes through its Playwright connection, whose blocking waits run that connection's
+ * message loop on the calling thread. Contexts of one browser handed to several tasks
+ * would have to take turns for every wait, so they would not run in parallel. Work that
+ * wants more pages of a site at once opens them as contexts or tabs of a single lease,
+ * as the enrichment and batch scrapes do. The pool's max size is therefore the number of
+ * browser tasks running at once, and the defaults are sized for the per-site limits of
+ * the browser sites plus on-demand detail reads. HTTP fetches never take a lease.
+ */
+@Component
+@Slf4j
+public class BrowserPool {
+    // Advanced launch options to avoid detection
+    private static final List<String> LAUNCH_ARGS = List.of(
+            "--disable-blink-features=AutomationControlled",
+            "--disable-features=IsolateOrigins",
+            "--disable-site-isolation-trials",
+            "--disable-web-security",
+            "--disable-blink-features",
+            "--no-sandbox",
+            "--disable-gpu"
+    );
+
+    private final ScraperProperties.BrowserPool config;
+    private final ScrapeMetrics metrics;
+    private final BlockingDeque<PooledBrowser> idle = new LinkedBlockingDeque<>();
+    // One permit per browser the pool may hold, taken for the life of a lease
+    private final Semaphore leases;
+    // Browsers alive right now, leased or idle
+    private final AtomicInteger size = new AtomicInteger(0);
+    private volatile boolean closed = false;
+
+    public BrowserPool(ScraperProperties properties, ScrapeMetrics metrics) {
+        this.config = properties.getBrowserPool();
+        this.metrics = metrics;
+        this.leases = new Semaphore(config.getMaxSize(), true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            fillToMinSize();
+        } catch (RuntimeException e) {
+            // Browsers will be launched on demand instead
+            log.warn("Could not pre-launch browsers: {}", e.getMessage());
+        }
+    }
+
+    public Lease acquire() throws InterruptedException {
+        return acquire(config.getAcquireTimeout());
+    }
+
+    /**
+     * Leases a browser, waiting at most the given time or the configured acquire timeout,
+     * whichever is shorter.
+     */
+    public Lease acquire(Duration maxWait) throws InterruptedException {
+        Duration timeout = maxWait.compareTo(config.getAcquireTimeout()) < 0 ? maxWait : config.getAcquireTimeout();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (!leases.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new IllegalStateException(String.format(
+                    "No browser available after %d ms (max size %d)",
+                    timeout.toMillis(), config.getMaxSize()));
+        }
+        try {
+            return leaseBrowser(deadline, timeout);
+        } catch (RuntimeException | InterruptedException e) {
+            leases.release();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+
+    public int waitingTasks() {
+        return leases.getQueueLength();
+    }
+
+    @Scheduled(fixedDelayString = "${scraper.browser-pool.health-check-interval:PT30S}")
+    public void healthCheck() {
+        if (closed) {
+            return;
+        }
+
+        // Only idle browsers are touched here, leased ones belong to their task
+        List<PooledBrowser> checked = new ArrayList<>();
+        idle.drainTo(checked);
+        int kept = 0;
+        for (PooledBrowser pooled : checked) {
+            if (!pooled.isHealthy()) {
+                log.warn("Discarding disconnected browser");
+                discard(pooled);
+            } else if (kept >= config.getMinSize() && size.get() > config.getMinSize()) {
+                // Shrink back to the configured minimum when load goes down
+                discard(pooled);
+            } else {
+                kept++;
+                idle.offerLast(pooled);
+            }
+        }
+
+        try {
+            fillToMinSize();
+        } catch (RuntimeException e) {
+            log.warn("Could not replace browsers during health check: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        List<PooledBrowser> remaining = new ArrayList<>();
+        idle.drainTo(remaining);
+        remaining.forEach(this::discard);
+        log.info("Browser pool shut down, {} browsers closed", remaining.size());
+    }
+
+    // With a permit in hand a browser is idle or can be launched, unless the health
+    // check is going through the idle ones right now
+    private Lease leaseBrowser(long deadline, Duration timeout) throws InterruptedException {
+        while (true) {
+            if (closed) {
+                throw new IllegalStateException("Browser pool is shut down");
+            }
+
+            PooledBrowser pooled = idle.pollFirst();
+            if (pooled == null && reserveSlot()) {
+                pooled = launchReserved();
+            }
+            if (pooled == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException(String.format(
+                            "No browser available after %d ms (max size %d)",
+                            timeout.toMillis(), config.getMaxSize()));
+                }
+                pooled = idle.pollFirst(remaining, TimeUnit.NANOSECONDS);
+                if (pooled == null) {
+                    continue;
+                }
+            }
+
+            if (pooled.isHealthy()) {
+                pooled.leases++;
+                return new Lease(pooled);
+            }
+            discard(pooled);
+        }
+    }
+
+    private void fillToMinSize() {
+        while (!closed && size.get() < config.getMinSize() && reserveSlot()) {
+            idle.offerLast(launchReserved());
+        }
+    }
+
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private PooledBrowser launchReserved() {
+        return metrics.timeLaunch(() -> {
+            Playwright playwright = null;
+            try {
+                playwright = Playwright.create();
+                Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions()
+                        .setHeadless(true)
+                        .setArgs(LAUNCH_ARGS));
+                log.info("Launched pooled browser {}/{}", size.get(), config.getMaxSize());
+                return new PooledBrowser(playwright, browser);
+            } catch (RuntimeException e) {
+                size.decrementAndGet();
+                if (playwright != null) {
+                    playwright.close();
+                }
+                throw e;
+            }
+        });
+    }
+
+    private void release(PooledBrowser pooled) {
+        if (closed || !pooled.isHealthy() || pooled.leases >= config.getMaxLeasesPerBrowser()) {
+            discard(pooled);
+            return;
+        }
+        // Most recently used first, so the surplus ones stay idle and get trimmed
+        idle.offerFirst(pooled);
+    }
+
+    private void discard(PooledBrowser pooled) {
+        size.decrementAndGet();
+        pooled.close();
+    }
+
+    private static class PooledBrowser {
+        private final Playwright playwright;
+        private final Browser browser;
+        private int leases = 0;
+
+        PooledBrowser(Playwright playwright, Browser browser) {
+            this.playwright = playwright;
+            this.browser = browser;
+        }
+
+        boolean isHealthy() {
+            try {
+                return browser.isConnected();
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        void close() {
+            try {
+                browser.close();
+            } catch (RuntimeException e) {
+                log.debug("Error closing browser", e);
+            }
+            try {
+                playwright.close();
+            } catch (RuntimeException e) {
+                log.debug("Error closing playwright", e);
+            }
+        }
+    }
+
+    /**
+     * Exclusive use of one pooled browser. Every context opened through the lease is
+     * closed together with it.
+     */
+    public class Lease implements AutoCloseable {
+        private final PooledBrowser pooled;
+        private final List<BrowserContext> contexts = new ArrayList<>();
+        private boolean released = false;
+
+        private Lease(PooledBrowser pooled) {
+            this.pooled = pooled;
+        }
+
+        public BrowserContext newContext(Browser.NewContextOptions options) {
+            BrowserContext context = pooled.browser.newContext(options);
+            contexts.add(context);
+            return context;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            for (BrowserContext context : contexts) {
+                try {
+                    context.close();
+                } catch (RuntimeException e) {
+                    log.debug("Error closing browser context", e);
+                }
+            }
+            release(pooled);
+            leases.release();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.jobscraperapi.scraper;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import org.example.jobscraperapi.model.JobPosting;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SiteScraper} driven by a {@link SiteDefinition}. The selector plan is compiled
+ * once when the definition is loaded and reused for every page.
+ */
+public class DeclarativeSiteScraper implements SiteScraper {
+    private final SiteDefinition definition;
+    private final JobCardExtractor.Plan plan;
+    // Null when the definition has no detail fields
+    private final JobCardExtractor.Plan detailPlan;
+
+    public DeclarativeSiteScraper(SiteDefinition definition) {
+        if (definition.getName() == null || definition.getUrlTemplate() == null
+                || definition.getCardSelector() == null || definition.getFields().isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Site definition needs a name, urlTemplate, cardSelector and fields: " + definition);
+        }
+        this.definition = definition;
+        this.plan = JobCardExtractor.compile(definition.getFields());
+        SiteDefinition.Detail detail = definition.getDetail();
+        this.detailPlan = detail == null || detail.getFields().isEmpty() ? null : JobCardExtractor.compile(detail.getFields());
+    }
+
+    public SiteDefinition definition() {
+        return definition;
+    }
+
+    @Override
+    public String name() {
+        return definition.getName();
+    }
+
+    @Override
+    public String buildUrl(String keywords, int page) {
+        String joined = String.join(definition.getKeywordSeparator(), keywords.trim().split("\\s+"));
+        String url = definition.getUrlTemplate().replace("{keywords}", joined);
+        if (page <= 1 || definition.getPageParameter() == null) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + definition.getPageParameter() + "=" + page;
+    }
+
+    @Override
+    public int pageDepth() {
+        return Math.max(1, definition.getPageDepth());
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return Math.max(1, definition.getMaxConcurrency());
+    }
+
+    @Override
+    public Duration timeout() {
+        return Duration.ofMillis(definition.getTimeoutMs());
+    }
+
+    @Override
+    public void awaitResults(Page page) {
+        JobCardExtractor.awaitCards(page, page.locator(definition.getCardSelector()));
+    }
+
+    @Override
+    public List<JobPosting> extract(Page page) {
+        Locator cards = page.locator(definition.getCardSelector());
+        return JobCardExtractor.extract(cards, plan).stream()
+                .map(fields -> JobPosting.of(name(), fields))
+                .toList();
+    }
+
+    @Override
+    public boolean httpFetchable() {
+        return "http".equalsIgnoreCase(definition.getFetchMode());
+    }
+
+    // Same selectors as the in-page extraction, applied by jsoup
+    @Override
+    public List<JobPosting> extract(Document document) {
+        List<JobPosting> postings = new ArrayList<>();
+        for (Element card : document.select(definition.getCardSelector())) {
+            postings.add(JobPosting.of(name(), readFields(card, plan)));
+        }
+        return postings;
+    }
+
+    @Override
+    public boolean hasDetails() {
+        return detailPlan != null;
+    }
+
+    @Override
+    public boolean detailsHttpFetchable() {
+        String fetchMode = definition.getDetail() == null || definition.getDetail().getFetchMode() == null
+                ? definition.getFetchMode()
+                : definition.getDetail().getFetchMode();
+        return hasDetails() && "http".equalsIgnoreCase(fetchMode);
+    }
+
+    @Override
+    public void awaitDetails(Page page) {
+        page.locator(detailContainer()).first().waitFor();
+    }
+
+    // The container is read like a single card
+    @Override
+    public Map<String, String> extractDetails(Page page) {
+        requireDetails();
+        List<Map<String, String>> rows = JobCardExtractor.extract(page.locator(detailContainer()).first(), detailPlan);
+        return rows.isEmpty() ? emptyDetails() : rows.get(0);
+    }
+
+    @Override
+    public Map<String, String> extractDetails(Document document) {
+        requireDetails();
+        Element container = document.selectFirst(detailContainer());
+        return container == null ? emptyDetails() : readFields(container, detailPlan);
+    }
+
+    private String detailContainer() {
+        return definition.getDetail().getContainerSelector();
+    }
+
+    private void requireDetails() {
+        if (detailPlan == null) {
+            throw new UnsupportedOperationException(name() + " has no posting details");
+        }
+    }
+
+    private Map<String, String> emptyDetails() {
+        Map<String, String> details = new HashMap<>();
+        detailPlan.fields().keySet().forEach(name -> details.put(name, null));
+        return details;
+    }
+
+    private static Map<String, String> readFields(Element card, JobCardExtractor.Plan plan) {
+        Map<String, String> content = new HashMap<>();
+        plan.fields().forEach((name, field) -> {
+            String value = readField(card, field);
+            content.put(name, value == null ? null : field.prefixOrEmpty() + value);
+        });
+        return content;
+    }
+
+    private static String readField(Element card, JobCardExtractor.Field field) {
+        Element element = field.selector() == null ? card : card.selectFirst(field.selector());
+        if (element == null) {
+            return null;
+        }
+        if (field.attribute() != null) {
+            return element.hasAttr(field.attribute()) ? element.attr(field.attribute()) : null;
+        }
+        return element.text();
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.jobscraperapi.scraper;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.LoadState;
+import com.microsoft.playwright.options.WaitUntilState;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.model.EnrichedPosting;
+import org.example.jobscraperapi.model.JobPosting;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads the pages of a site's postings as a few tabs of one browser context. A navigation
+ * is started on every tab before the first one is read, so the pages load side by side
+ * even though Playwright is driven from a single thread, and each tab is reused for the
+ * next posting once read. The context belongs to the caller, the tabs are closed with
+ * this object.
+ */
+@Slf4j
+public class DetailTabs implements AutoCloseable {
+    private final BrowserContext context;
+    private final ResourceBlocker resourceBlocker;
+    private final ScrapeMetrics metrics;
+    private final SiteScraper site;
+    private final ScrapeDeadline deadline;
+    private final Page[] tabs;
+    // Posting each tab is loading, null when the tab is free
+    private final JobPosting[] loading;
+    private final long[] navigationStarts;
+
+    public DetailTabs(
+            BrowserContext context,
+            ResourceBlocker resourceBlocker,
+            ScrapeMetrics metrics,
+            SiteScraper site,
+            int tabs,
+            ScrapeDeadline deadline) {
+        this.context = context;
+        this.resourceBlocker = resourceBlocker;
+        this.metrics = metrics;
+        this.site = site;
+        this.deadline = deadline;
+        this.tabs = new Page[Math.max(1, tabs)];
+        this.loading = new JobPosting[this.tabs.length];
+        this.navigationStarts = new long[this.tabs.length];
+    }
+
+    /**
+     * Reads every posting and hands each result over as soon as its tab is read.
+     * beforeNavigation gets the URL about to be opened, e.g. to wait for a politeness slot.
+     */
+    public void read(List<JobPosting> postings, Consumer<String> beforeNavigation, Consumer<EnrichedPosting> done) {
+        Iterator<JobPosting> next = postings.iterator();
+        for (int i = 0; i < tabs.length; i++) {
+            start(i, next, beforeNavigation, done);
+        }
+
+        // Tabs are read in turn, each one starting its next posting right away
+        boolean loadingAny = true;
+        while (loadingAny) {
+            loadingAny = false;
+            for (int i = 0; i < tabs.length; i++) {
+                if (loading[i] != null) {
+                    loadingAny = true;
+                    done.accept(finish(i));
+                    loading[i] = null;
+                    start(i, next, beforeNavigation, done);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Page tab : tabs) {
+            if (tab != null) {
+                try {
+                    tab.close();
+                } catch (RuntimeException e) {
+                    log.debug("Error closing tab", e);
+                }
+            }
+        }
+    }
+
+    // Starts loading the next posting on the tab, postings that cannot be opened are answered right away
+    private void start(int i, Iterator<JobPosting> next, Consumer<String> beforeNavigation, Consumer<EnrichedPosting> done) {
+        while (next.hasNext()) {
+            JobPosting posting = next.next();
+            try {
+                deadline.check();
+                beforeNavigation.accept(posting.url());
+                if (tabs[i] == null) {
+                    tabs[i] = context.newPage();
+                    resourceBlocker.install(tabs[i], site.name());
+                }
+                navigationStarts[i] = System.nanoTime();
+                tabs[i].navigate(posting.url(), new Page.NavigateOptions()
+                        .setWaitUntil(WaitUntilState.COMMIT)
+                        .setTimeout(Math.max(1, deadline.bound(site.timeout()).toMillis())));
+                loading[i] = posting;
+                return;
+            } catch (RuntimeException e) {
+                done.accept(outcome(posting, e));
+            }
+        }
+    }
+
+    private EnrichedPosting finish(int i) {
+        Page tab = tabs[i];
+        JobPosting posting = loading[i];
+        try {
+            // What is left of the site's timeout since the navigation started
+            long elapsed = System.nanoTime() - navigationStarts[i];
+            long remainingMs = Math.min(site.timeout().toNanos() - elapsed, deadline.remainingNanos()) / 1_000_000;
+            tab.setDefaultNavigationTimeout(Math.max(1, remainingMs));
+            tab.setDefaultTimeout(Math.max(1, remainingMs));
+
+            tab.waitForLoadState(LoadState.DOMCONTENTLOADED);
+            site.awaitDetails(tab);
+            deadline.check();
+            Map<String, String> details = metrics.time(ScrapeMetrics.PHASE_DETAIL, site.name(),
+                    () -> site.extractDetails(tab));
+            return EnrichedPosting.success(posting, "browser", details);
+        } catch (RuntimeException e) {
+            return outcome(posting, e);
+        }
+    }
+
+    private EnrichedPosting outcome(JobPosting posting, RuntimeException e) {
+        if (e instanceof ScrapeDeadline.Cancelled) {
+            return EnrichedPosting.cancelled(posting, e.getMessage());
+        }
+        log.info("Could not read the details of {}: {}", posting.url(), e.getMessage());
+        return e instanceof TimeoutError
+                ? EnrichedPosting.timedOut(posting, e.getMessage())
+                : EnrichedPosting.failed(posting, e.getMessage());
+    }
+}
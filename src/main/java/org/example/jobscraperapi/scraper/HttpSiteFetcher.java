@@ -0,0 +1,192 @@
+package org.example.jobscraperapi.scraper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.SiteResult;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Browserless fast path: server-rendered result pages are fetched with a plain HTTP
+ * client and parsed with jsoup using the site's selectors. Whenever that does not give
+ * any card the browser task runs instead, unless the site refused the request outright.
+ */
+@Component
+@Slf4j
+public class HttpSiteFetcher {
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/121.0.0.0 Safari/537.36";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, ModeStats> stats = new ConcurrentHashMap<>();
+    private final ScrapeMetrics metrics;
+
+    public HttpSiteFetcher(ScrapeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Scrapes the page over HTTP when the site allows it, otherwise or on failure runs the
+     * browser scrape. The result says which of the two produced it under "mode".
+     */
+    public SiteResult fetchOrFallback(
+            SiteScraper site,
+            String url,
+            Callable<SiteResult> browserScrape) throws Exception {
+        return fetchOrFallback(site, url, browserScrape, ScrapeDeadline.none());
+    }
+
+    /**
+     * Same as {@link #fetchOrFallback(SiteScraper, String, Callable)}, with the HTTP fetch
+     * bound by the request's deadline. Once the deadline is over the page is answered as
+     * cancelled instead of going through the browser.
+     */
+    public SiteResult fetchOrFallback(
+            SiteScraper site,
+            String url,
+            Callable<SiteResult> browserScrape,
+            ScrapeDeadline deadline) throws Exception {
+        ModeStats siteStats = stats.computeIfAbsent(site.name(), key -> new ModeStats());
+
+        if (site.httpFetchable()) {
+            SiteResult result = tryHttp(site, url, deadline);
+            if (result != null) {
+                siteStats.http.increment();
+                metrics.taskFinished(result);
+                return result;
+            }
+            siteStats.fallbacks.increment();
+        }
+
+        if (deadline.isOver()) {
+            SiteResult result = SiteResult.cancelled(site.name(), url, deadline.reason());
+            metrics.taskFinished(result);
+            return result;
+        }
+
+        siteStats.browser.increment();
+        SiteResult result = browserScrape.call().withMode("browser");
+        metrics.taskFinished(result);
+        return result;
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> report = new HashMap<>();
+        stats.forEach((site, siteStats) -> report.put(site, siteStats.report()));
+        return report;
+    }
+
+    /**
+     * Fetches and parses a posting's page without a browser. The document is null when
+     * that did not work and the page has to go through the browser, or the deadline is
+     * over; the status is 0 when no answer came at all.
+     */
+    public FetchedDocument fetchDocument(SiteScraper site, String url, ScrapeDeadline deadline) {
+        try {
+            HttpResponse<String> response = get(site, url, deadline);
+            if (response.statusCode() != 200) {
+                log.info("HTTP fetch of {} answered {}", url, response.statusCode());
+                return new FetchedDocument(response.statusCode(), null);
+            }
+            return new FetchedDocument(200, metrics.time(ScrapeMetrics.PHASE_HTTP_PARSE, site.name(),
+                    () -> Jsoup.parse(response.body(), url)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FetchedDocument(0, null);
+        } catch (ScrapeDeadline.Cancelled e) {
+            return new FetchedDocument(0, null);
+        } catch (Exception e) {
+            log.info("HTTP fetch of {} failed: {}", url, e.getMessage());
+            return new FetchedDocument(0, null);
+        }
+    }
+
+    public record FetchedDocument(int status, Document document) {
+        // The browser would be refused just the same
+        public boolean refused() {
+            return status == 403 || status == 429;
+        }
+    }
+
+    private HttpResponse<String> get(SiteScraper site, String url, ScrapeDeadline deadline) throws Exception {
+        deadline.check();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(deadline.bound(site.timeout()))
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                .header("Accept-Language", "es-MX,es;q=0.9,en;q=0.8")
+                .GET()
+                .build();
+
+        long fetchStart = System.nanoTime();
+        HttpResponse<String> response = deadline.interruptible(
+                () -> httpClient.send(request, HttpResponse.BodyHandlers.ofString()));
+        metrics.record(ScrapeMetrics.PHASE_HTTP_FETCH, site.name(), System.nanoTime() - fetchStart);
+        return response;
+    }
+
+    // Null when the page has to go through the browser
+    private SiteResult tryHttp(SiteScraper site, String url, ScrapeDeadline deadline) {
+        try {
+            HttpResponse<String> response = get(site, url, deadline);
+            // The browser would be refused just the same
+            if (response.statusCode() == 403 || response.statusCode() == 429) {
+                return SiteResult.blocked(site.name(), url,
+                        String.format("Blocked by %s (Status: %d)", url, response.statusCode())).withMode("http");
+            }
+            if (response.statusCode() != 200) {
+                log.info("HTTP fetch of {} answered {}, falling back to the browser", url, response.statusCode());
+                return null;
+            }
+
+            List<JobPosting> postings = metrics.time(ScrapeMetrics.PHASE_HTTP_PARSE, site.name(),
+                    () -> site.extract(Jsoup.parse(response.body(), url)));
+            if (postings.isEmpty()) {
+                log.info("No cards in the HTML of {}, falling back to the browser", url);
+                return null;
+            }
+
+            return SiteResult.success(site.name(), url, postings).withMode("http");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ScrapeDeadline.Cancelled e) {
+            return null;
+        } catch (Exception e) {
+            log.info("HTTP fetch of {} failed, falling back to the browser: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    private static class ModeStats {
+        private final LongAdder http = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final LongAdder browser = new LongAdder();
+
+        Map<String, Object> report() {
+            long httpAttempts = http.sum() + fallbacks.sum();
+            return Map.of(
+                    "http", http.sum(),
+                    "browser", browser.sum(),
+                    "fallbacks", fallbacks.sum(),
+                    "fallbackRate", httpAttempts == 0 ? 0.0 : (double) fallbacks.sum() / httpAttempts
+            );
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.jobscraperapi.scraper;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.LoadState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads every job card matched by a locator in a single in-page evaluation instead of
+ * one driver round-trip per card and field.
+ */
+public final class JobCardExtractor {
+    // Upper bound for late cards to arrive once the first one is on the page
+    private static final double NETWORK_SETTLE_TIMEOUT_MS = 2_000;
+
+    // Each field is read on its own, so a malformed card only loses that field
+    private static final String EXTRACT_SCRIPT = """
+            (cards, fields) => cards.map(card => {
+                const row = {};
+                for (const [name, field] of Object.entries(fields)) {
+                    try {
+                        const element = field.selector ? card.querySelector(field.selector) : card;
+                        if (!element) {
+                            row[name] = null;
+                        } else if (field.attribute) {
+                            row[name] = element.getAttribute(field.attribute);
+                        } else {
+                            row[name] = element.innerText;
+                        }
+                    } catch (e) {
+                        row[name] = null;
+                    }
+                }
+                return row;
+            })
+            """;
+
+    private JobCardExtractor() {
+    }
+
+    /**
+     * Returns as soon as the first card is rendered and the network goes quiet, instead
+     * of sleeping for a fixed time after the load event.
+     */
+    public static void awaitCards(Page page, Locator cards) {
+        cards.first().waitFor();
+        try {
+            page.waitForLoadState(LoadState.NETWORKIDLE, new Page.WaitForLoadStateOptions()
+                    .setTimeout(NETWORK_SETTLE_TIMEOUT_MS));
+        } catch (TimeoutError e) {
+            // Long-polling or tracking traffic never settles, the cards are there anyway
+        }
+    }
+
+    /**
+     * Turns field definitions into the argument of the extraction script once, so it can
+     * be reused for every page of the site.
+     */
+    public static Plan compile(Map<String, Field> fields) {
+        Map<String, Map<String, String>> script = new HashMap<>();
+        fields.forEach((name, field) -> {
+            Map<String, String> definition = new HashMap<>();
+            definition.put("selector", field.selector());
+            definition.put("attribute", field.attribute());
+            script.put(name, definition);
+        });
+        return new Plan(Map.copyOf(fields), script);
+    }
+
+    public static List<Map<String, String>> extract(Locator cards, Plan plan) {
+        Object evaluated = cards.evaluateAll(EXTRACT_SCRIPT, plan.script());
+
+        List<Map<String, String>> results = new ArrayList<>();
+        if (!(evaluated instanceof List<?> rows)) {
+            return results;
+        }
+        for (Object row : rows) {
+            Map<?, ?> values = row instanceof Map<?, ?> map ? map : Map.of();
+            Map<String, String> content = new HashMap<>();
+            plan.fields().forEach((name, field) -> {
+                Object value = values.get(name);
+                content.put(name, value == null ? null : field.prefixOrEmpty() + value);
+            });
+            results.add(content);
+        }
+        return results;
+    }
+
+    public record Plan(Map<String, Field> fields, Map<String, Map<String, String>> script) {
+    }
+
+    /**
+     * Where to read one posting field from, relative to its card. A null selector
+     * means the card itself and a null attribute means its rendered text.
+     */
+    public record Field(String selector, String attribute, String prefix) {
+        public String prefixOrEmpty() {
+            return prefix == null ? "" : prefix;
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package org.example.jobscraperapi.scraper;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.config.ScraperProperties;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
 
+@Slf4j
 public class PlaywrightConcurrent {
     private static final int THREAD_POOL_SIZE = 3;
+    // Longest a Playwright wait runs before the task checks its deadline again
+    private static final long WAIT_SLICE_MS = 250;
 
     private static final List<List<String>> URLS = List.of(
             List.of("indeed", "https://mx.indeed.com/jobs?q=python&l=Ciudad+de+M%C3%A9xico&from=searchOnDesktopSerp&vjk=e69863b941f81c35"),
@@ -34,16 +43,29 @@ public class PlaywrightConcurrent {
     public static void main(String[] args) {
         long startTime = System.currentTimeMillis();
 
+        ScraperProperties properties = new ScraperProperties();
+        ScrapeMetrics metrics = new ScrapeMetrics(new SimpleMeterRegistry());
+        BrowserPool browserPool = new BrowserPool(properties, metrics);
+        ResourceBlocker resourceBlocker = new ResourceBlocker(properties, metrics);
+        SiteRegistry siteRegistry = new SiteRegistry(properties, List.of(), new ObjectMapper());
+        siteRegistry.load();
         ExecutorService executor = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
-        CompletionService<Map<String, Object>> completionService = new ExecutorCompletionService<>(executor);
+        CompletionService<SiteResult> completionService = new ExecutorCompletionService<>(executor);
 
+        int submitted = 0;
         for (List<String> urlWithSite : URLS) {
-            completionService.submit(new PlaywrightTask(urlWithSite.get(0), urlWithSite.get(1)));
+            Optional<SiteScraper> siteScraper = siteRegistry.find(urlWithSite.get(0));
+            if (siteScraper.isEmpty()) {
+                log.warn("Skipping unsupported site {}", urlWithSite.get(0));
+                continue;
+            }
+            completionService.submit(new PlaywrightTask(browserPool, resourceBlocker, metrics, siteScraper.get(), urlWithSite.get(1)));
+            submitted++;
         }
 
         try {
-            for (int i = 0; i < URLS.size(); i++) {
-                Future<Map<String, Object>> result = completionService.take();
+            for (int i = 0; i < submitted; i++) {
+                Future<SiteResult> result = completionService.take();
                 System.out.println(result.get());
             }
         } catch (InterruptedException | ExecutionException e) {
@@ -58,152 +80,168 @@ public class PlaywrightConcurrent {
                 executor.shutdownNow();
                 Thread.currentThread().interrupt();
             }
+            browserPool.shutdown();
         }
 
         long endTime = System.currentTimeMillis();
         System.out.println("Total execution time: " + (endTime - startTime) + "ms");
     }
 
-    public static class PlaywrightTask implements Callable<Map<String, Object>> {
+    /**
+     * Opens a context on the leased browser with a random user agent and location, and
+     * headers that mimic a real browser.
+     */
+    public static BrowserContext newContext(BrowserPool.Lease lease) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String userAgent = USER_AGENTS.get(random.nextInt(USER_AGENTS.size()));
+        Map<String, Double> location = MEXICO_LOCATIONS.get(random.nextInt(MEXICO_LOCATIONS.size()));
+
+        // Context options with randomized parameters
+        Browser.NewContextOptions contextOptions = new Browser.NewContextOptions()
+                .setUserAgent(userAgent)
+                .setViewportSize(1920, 1080)
+                .setLocale("es-MX")
+                .setTimezoneId("America/Mexico_City")
+                .setGeolocation(location.get("latitude"), location.get("longitude"))
+                .setPermissions(Arrays.asList("geolocation"))
+                .setJavaScriptEnabled(true)
+                .setDeviceScaleFactor(1.0)
+                .setIsMobile(false)
+                .setHasTouch(false)
+                .setColorScheme(ColorScheme.LIGHT)
+                .setReducedMotion(ReducedMotion.NO_PREFERENCE)
+                .setForcedColors(ForcedColors.NONE)
+                .setIgnoreHTTPSErrors(true);
+
+        BrowserContext context = lease.newContext(contextOptions);
+
+        // Set custom headers that mimic real browser behavior
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept-Language", "es-MX,es;q=0.9,en;q=0.8");
+        headers.put("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,image/apng,*/*;q=0.8");
+        headers.put("sec-ch-ua-platform", "\"Windows\"");
+        headers.put("sec-ch-ua", "\"Chromium\";v=\"121\", \"Not A(Brand\";v=\"99\"");
+        headers.put("sec-ch-ua-mobile", "?0");
+        headers.put("Upgrade-Insecure-Requests", "1");
+        headers.put("Sec-Fetch-Site", "none");
+        headers.put("Sec-Fetch-Mode", "navigate");
+        headers.put("Sec-Fetch-User", "?1");
+        headers.put("Sec-Fetch-Dest", "document");
+        context.setExtraHTTPHeaders(headers);
+        return context;
+    }
+
+    public static class PlaywrightTask implements Callable<SiteResult> {
+        private final BrowserPool browserPool;
+        private final ResourceBlocker resourceBlocker;
+        private final ScrapeMetrics metrics;
+        private final SiteScraper siteScraper;
         private final String url;
         private final String site;
-        private final Random random = new Random();
+        private final ScrapeDeadline deadline;
+
+        public PlaywrightTask(
+                BrowserPool browserPool,
+                ResourceBlocker resourceBlocker,
+                ScrapeMetrics metrics,
+                SiteScraper siteScraper,
+                String url) {
+            this(browserPool, resourceBlocker, metrics, siteScraper, url, ScrapeDeadline.none());
+        }
 
-        public PlaywrightTask(String site, String url) {
+        public PlaywrightTask(
+                BrowserPool browserPool,
+                ResourceBlocker resourceBlocker,
+                ScrapeMetrics metrics,
+                SiteScraper siteScraper,
+                String url,
+                ScrapeDeadline deadline) {
+            this.browserPool = browserPool;
+            this.resourceBlocker = resourceBlocker;
+            this.metrics = metrics;
+            this.siteScraper = siteScraper;
             this.url = url;
-            this.site = site;
+            this.site = siteScraper.name();
+            this.deadline = deadline;
         }
 
         @Override
-        public Map<String, Object> call() {
-            try (Playwright playwright = Playwright.create()) {
-                String userAgent = USER_AGENTS.get(random.nextInt(USER_AGENTS.size()));
-                Map<String, Double> location = MEXICO_LOCATIONS.get(random.nextInt(MEXICO_LOCATIONS.size()));
-
-                // Advanced launch options to avoid detection
-                BrowserType.LaunchOptions launchOptions = new BrowserType.LaunchOptions()
-                        .setHeadless(true)
-                        .setArgs(Arrays.asList(
-                                "--disable-blink-features=AutomationControlled",
-                                "--disable-features=IsolateOrigins",
-                                "--disable-site-isolation-trials",
-                                "--disable-web-security",
-                                "--disable-blink-features",
-                                "--no-sandbox",
-                                "--disable-gpu"
-                        ));
-
-                Browser browser = playwright.chromium().launch(launchOptions);
-
-                // Context options with randomized parameters
-                Browser.NewContextOptions contextOptions = new Browser.NewContextOptions()
-                        .setUserAgent(userAgent)
-                        .setViewportSize(1920, 1080)
-                        .setLocale("es-MX")
-                        .setTimezoneId("America/Mexico_City")
-                        .setGeolocation(location.get("latitude"), location.get("longitude"))
-                        .setPermissions(Arrays.asList("geolocation"))
-                        .setJavaScriptEnabled(true)
-                        .setDeviceScaleFactor(1.0)
-                        .setIsMobile(false)
-                        .setHasTouch(false)
-                        .setColorScheme(ColorScheme.LIGHT)
-                        .setReducedMotion(ReducedMotion.NO_PREFERENCE)
-                        .setForcedColors(ForcedColors.NONE)
-                        .setIgnoreHTTPSErrors(true);
-
-                BrowserContext context = browser.newContext(contextOptions);
-
-                // Set custom headers that mimic real browser behavior
-                Map<String, String> headers = new HashMap<>();
-                headers.put("Accept-Language", "es-MX,es;q=0.9,en;q=0.8");
-                headers.put("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,image/apng,*/*;q=0.8");
-                headers.put("sec-ch-ua-platform", "\"Windows\"");
-                headers.put("sec-ch-ua", "\"Chromium\";v=\"121\", \"Not A(Brand\";v=\"99\"");
-                headers.put("sec-ch-ua-mobile", "?0");
-                headers.put("Upgrade-Insecure-Requests", "1");
-                headers.put("Sec-Fetch-Site", "none");
-                headers.put("Sec-Fetch-Mode", "navigate");
-                headers.put("Sec-Fetch-User", "?1");
-                headers.put("Sec-Fetch-Dest", "document");
-                context.setExtraHTTPHeaders(headers);
-
-                Page page = context.newPage();
-                setupPageHandlers(page);
-
+        public SiteResult call() {
+            long acquireStart = System.nanoTime();
+            try (BrowserPool.Lease lease = deadline.interruptible(
+                    () -> browserPool.acquire(Duration.ofNanos(deadline.remainingNanos())))) {
+                metrics.record(ScrapeMetrics.PHASE_ACQUIRE, site, System.nanoTime() - acquireStart);
+
+                long contextStart = System.nanoTime();
+                BrowserContext context = newContext(lease);
                 try {
-                    // Random delay before navigation (1-3 seconds)
-                    Thread.sleep(1000 + random.nextInt(2000));
-
-                    System.out.printf("Thread %s: Navigating to %s with UserAgent: %s%n",
-                            Thread.currentThread().getName(), url, userAgent);
-
-                    // Navigate with custom timeout and wait options
-                    page.setDefaultNavigationTimeout(10_000);
-                    page.setDefaultTimeout(10_000);
-
-                    Response response = page.navigate(url, new Page.NavigateOptions()
-                            .setWaitUntil(WaitUntilState.LOAD));
-
-                    // Check if we got blocked
-                    if (response != null && (response.status() == 403 || response.status() == 429)) {
-                        Map<String, Object> blockedResponse = new HashMap<>();
-                        blockedResponse.put("status", "blocked");
-                        blockedResponse.put("message", String.format("Blocked by %s (Status: %d)", url, response.status()));
-                        blockedResponse.put("site", site);
-                        blockedResponse.put("url", url);
-                        blockedResponse.put("timestamp", System.currentTimeMillis());
-                        blockedResponse.put("data", new HashMap<>());
-
-                        return blockedResponse;
-                    }
-
-                    // Random delay after page load (2-4 seconds)
-                    Thread.sleep(2000 + random.nextInt(2000));
-
-                    Map<String, Object> result;
-
-                    switch (site) {
-//                        case "indeed":
-//                            result = processIndeed(page, url, site);
-//                            break;
+                    return scrape(context, contextStart);
+                } finally {
+                    context.close();
+                }
+            } catch (Exception e) {
+                return outcome(e);
+            }
+        }
 
-                        case "computrabajo":
-                            result = processCompuTrabajo(page, url, site);
-                            break;
+        /**
+         * Scrapes the page in a new tab of a context the caller keeps open, e.g. one shared
+         * by many pages of the same site. The tab is closed afterwards.
+         */
+        public SiteResult scrapeIn(BrowserContext context) {
+            try {
+                return scrape(context, System.nanoTime());
+            } catch (Exception e) {
+                return outcome(e);
+            }
+        }
 
-                        case "occ":
-                            result = processOcc(page, url, site);
-                            break;
+        private SiteResult scrape(BrowserContext context, long setupStart) {
+            Page page = context.newPage();
+            setupPageHandlers(page);
+            ResourceBlocker.NetworkStats network = resourceBlocker.install(page, site);
+            metrics.record(ScrapeMetrics.PHASE_CONTEXT, site, System.nanoTime() - setupStart);
 
-                        default:
-                            result = new HashMap<String, Object>(Map.of(
-                                    "status", "failed",
-                                    "timestamp", System.currentTimeMillis(),
-                                    "message", "",
-                                    "url", url,
-                                    "site", site,
-                                    "data", new HashMap<>()
-                            ));
+            try {
+                deadline.check();
+                log.debug("Navigating to {}", url);
+
+                // Navigation returns once the response starts, the document is then
+                // awaited in slices so a cancelled task lets go of the page quickly
+                Response response = metrics.time(ScrapeMetrics.PHASE_NAVIGATION, site, () -> {
+                    Response committed = page.navigate(url, new Page.NavigateOptions()
+                            .setWaitUntil(WaitUntilState.COMMIT)
+                            .setTimeout(Math.max(1, deadline.bound(siteScraper.timeout()).toMillis())));
+                    awaitInSlices(page, () -> page.waitForLoadState(LoadState.DOMCONTENTLOADED));
+                    return committed;
+                });
+
+                // Check if we got blocked
+                if (response != null && (response.status() == 403 || response.status() == 429)) {
+                    return SiteResult.blocked(site, url,
+                            String.format("Blocked by %s (Status: %d)", url, response.status()));
+                }
 
-                    }
+                metrics.time(ScrapeMetrics.PHASE_WAIT, site, () -> awaitInSlices(page, () -> siteScraper.awaitResults(page)));
+                deadline.check();
+                return SiteResult.success(site, url,
+                        metrics.time(ScrapeMetrics.PHASE_EXTRACTION, site, () -> siteScraper.extract(page)));
 
-                    return result;
+            } finally {
+                log.debug("Network for {}: {}", url, network);
+                page.close();
+            }
+        }
 
-                } finally {
-                    context.close();
-                    browser.close();
-                }
-            } catch (Exception e) {
-                return new HashMap<String, Object>(Map.of(
-                        "status", "failed",
-                        "timestamp", System.currentTimeMillis(),
-                        "message", e.getMessage(),
-                        "url", url,
-                        "site", site,
-                        "data", new HashMap<>()
-                ));
+        private SiteResult outcome(Exception e) {
+            if (e instanceof ScrapeDeadline.Cancelled) {
+                log.info("Scrape of {} cancelled: {}", url, e.getMessage());
+                return SiteResult.cancelled(site, url, e.getMessage());
+            }
+            if (e instanceof TimeoutError) {
+                return SiteResult.timedOut(site, url, e.getMessage());
             }
+            return SiteResult.failed(site, url, e.getMessage());
         }
 
 //        private static Map<String, Object> processIndeed(Page page, String url, String site) {
@@ -238,62 +276,34 @@ public class PlaywrightConcurrent {
 //            return result;
 //        }
 
-        private static Map<String, Object> processCompuTrabajo(Page page, String url, String site) {
-            Map<String, Object> result = new HashMap<>();
-            List<Map<String, String>> resultsCompuTrabajo = new ArrayList<>();
-
-            Locator listItemsCompu = page.locator("div#offersGridOfferContainer > article");
-            listItemsCompu.first().waitFor();
-            int countC = listItemsCompu.count();
-            for (int i = 0; i < countC; i++) {
-                Locator articleItem = listItemsCompu.nth(i);
-                articleItem.waitFor();
-                Map<String, String> content = new HashMap<>();
-
-                content.put("title", articleItem.locator("h2.fs18.fwB").first().innerText());
-                content.put("url", "https://mx.computrabajo.com" + articleItem.locator("a.js-o-link.fc_base").first().getAttribute("href"));
-                content.put("company", articleItem.locator("p.dIB.fs16.fc_base.mt5").first().innerText());
-
-                resultsCompuTrabajo.add(content);
-            }
-
-            result.put("data", resultsCompuTrabajo);
-            result.put("status", "success");
-            result.put("url", url);
-            result.put("site", site);
-            result.put("timestamp", System.currentTimeMillis());
-            result.put("message", "");
-
-            return result;
-        }
-
-        private static Map<String, Object> processOcc(Page page, String url, String site) {
-            Map<String, Object> result = new HashMap<>();
-            List<Map<String, String>> resultsOcc = new ArrayList<>();
-
-            Locator listItemsOCC = page.locator("[id^='jobcard-']");
-            listItemsOCC.first().waitFor();
-            int countO = listItemsOCC.count();
-            for (int i = 0; i < countO; i++) {
-                Locator occItem = listItemsOCC.nth(i);
-                occItem.waitFor();
-                Map<String, String> content = new HashMap<>();
-
-                content.put("title", occItem.locator("h2").first().innerText());
-                content.put("url", "https://www.occ.com.mx" + occItem.locator("a").first().getAttribute("href"));
-                content.put("company", occItem.locator("a").first().innerText());
-
-                resultsOcc.add(content);
+        /**
+         * Runs a Playwright wait in short slices, checking the deadline in between, until
+         * it succeeds or the site's timeout runs out. The page's default timeouts are put
+         * back to the site's timeout afterwards, so later calls on it get the full time.
+         */
+        private void awaitInSlices(Page page, Runnable wait) {
+            long phaseEnd = System.nanoTime() + siteScraper.timeout().toNanos();
+            try {
+                while (true) {
+                    deadline.check();
+                    long remainingMs = Math.min(phaseEnd - System.nanoTime(), deadline.remainingNanos()) / 1_000_000;
+                    long slice = Math.max(1, Math.min(WAIT_SLICE_MS, remainingMs));
+                    // The wait may not take a timeout of its own, e.g. the site's awaitResults
+                    page.setDefaultNavigationTimeout(slice);
+                    page.setDefaultTimeout(slice);
+                    try {
+                        wait.run();
+                        return;
+                    } catch (TimeoutError e) {
+                        if (phaseEnd - System.nanoTime() <= 0) {
+                            throw e;
+                        }
+                    }
+                }
+            } finally {
+                page.setDefaultNavigationTimeout(siteScraper.timeout().toMillis());
+                page.setDefaultTimeout(siteScraper.timeout().toMillis());
             }
-
-            result.put("data", resultsOcc);
-            result.put("status", "success");
-            result.put("url", url);
-            result.put("site", site);
-            result.put("timestamp", System.currentTimeMillis());
-            result.put("message", "");
-
-            return result;
         }
 
         private void setupPageHandlers(Page page) {
@@ -2,6 +2,7 @@ package org.example.jobscraperapi.scraper;
 
 import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.*;
+import org.example.jobscraperapi.model.SiteResult;
 
 import java.util.*;
 
@@ -23,35 +24,35 @@ public class PlaywrightSequential {
     );
 
     public static class Task {
+        private final BrowserPool browserPool;
+        private final ResourceBlocker resourceBlocker;
+        private final ScrapeMetrics metrics;
+        private final SiteScraper siteScraper;
         private final String url;
         private final String site;
         private final Random random = new Random();
 
-        public Task(String site, String url) {
+        public Task(
+                BrowserPool browserPool,
+                ResourceBlocker resourceBlocker,
+                ScrapeMetrics metrics,
+                SiteScraper siteScraper,
+                String url) {
+            this.browserPool = browserPool;
+            this.resourceBlocker = resourceBlocker;
+            this.metrics = metrics;
+            this.siteScraper = siteScraper;
             this.url = url;
-            this.site = site;
+            this.site = siteScraper.name();
         }
 
-        public Map<String, Object> call() {
-            try (Playwright playwright = Playwright.create()) {
+        public SiteResult call() {
+            long acquireStart = System.nanoTime();
+            try (BrowserPool.Lease lease = browserPool.acquire()) {
+                metrics.record(ScrapeMetrics.PHASE_ACQUIRE, site, System.nanoTime() - acquireStart);
                 String userAgent = USER_AGENTS.get(random.nextInt(USER_AGENTS.size()));
                 Map<String, Double> location = MEXICO_LOCATIONS.get(random.nextInt(MEXICO_LOCATIONS.size()));
 
-                // Advanced launch options to avoid detection
-                BrowserType.LaunchOptions launchOptions = new BrowserType.LaunchOptions()
-                        .setHeadless(true)
-                        .setArgs(Arrays.asList(
-                                "--disable-blink-features=AutomationControlled",
-                                "--disable-features=IsolateOrigins",
-                                "--disable-site-isolation-trials",
-                                "--disable-web-security",
-                                "--disable-blink-features",
-                                "--no-sandbox",
-                                "--disable-gpu"
-                        ));
-
-                Browser browser = playwright.chromium().launch(launchOptions);
-
                 // Context options with randomized parameters
                 Browser.NewContextOptions contextOptions = new Browser.NewContextOptions()
                         .setUserAgent(userAgent)
@@ -69,7 +70,8 @@ public class PlaywrightSequential {
                         .setForcedColors(ForcedColors.NONE)
                         .setIgnoreHTTPSErrors(true);
 
-                BrowserContext context = browser.newContext(contextOptions);
+                long contextStart = System.nanoTime();
+                BrowserContext context = lease.newContext(contextOptions);
 
                 Map<String, String> headers = new HashMap<>();
                 headers.put("Accept-Language", "es-MX,es;q=0.9,en;q=0.8");
@@ -86,132 +88,40 @@ public class PlaywrightSequential {
 
                 Page page = context.newPage();
                 setupPageHandlers(page);
+                resourceBlocker.install(page, site);
+                metrics.record(ScrapeMetrics.PHASE_CONTEXT, site, System.nanoTime() - contextStart);
 
                 try {
-                    // Random delay before navigation (1-3 seconds)
-                    Thread.sleep(1000 + random.nextInt(2000));
-
                     System.out.printf("Navigating to %s with UserAgent: %s%n",
                             url, userAgent);
 
                     // Navigate with custom timeout and wait options
-                    page.setDefaultNavigationTimeout(10_000);
-                    page.setDefaultTimeout(10_000);
+                    page.setDefaultNavigationTimeout(siteScraper.timeout().toMillis());
+                    page.setDefaultTimeout(siteScraper.timeout().toMillis());
 
-                    Response response = page.navigate(url, new Page.NavigateOptions()
-                            .setWaitUntil(WaitUntilState.LOAD));
+                    Response response = metrics.time(ScrapeMetrics.PHASE_NAVIGATION, site,
+                            () -> page.navigate(url, new Page.NavigateOptions()
+                                    .setWaitUntil(WaitUntilState.DOMCONTENTLOADED)));
 
                     // Check if we got blocked
                     if (response != null && (response.status() == 403 || response.status() == 429)) {
-                        Map<String, Object> blockedResponse = new HashMap<>();
-                        blockedResponse.put("status", "blocked");
-                        blockedResponse.put("message", String.format("Blocked by %s (Status: %d)", url, response.status()));
-                        blockedResponse.put("site", site);
-                        blockedResponse.put("url", url);
-                        blockedResponse.put("timestamp", System.currentTimeMillis());
-                        blockedResponse.put("data", new HashMap<>());
-
-                        return blockedResponse;
-                    }
-
-                    // Random delay after page load (2-4 seconds)
-                    Thread.sleep(2000 + random.nextInt(2000));
-
-                    Map<String, Object> result;
-
-                    switch (site) {
-                        case "computrabajo":
-                            result = processCompuTrabajo(page, url, site);
-                            break;
-
-                        case "occ":
-                            result = processOcc(page, url, site);
-                            break;
-
-                        default:
-                            result = new HashMap<String, Object>(Map.of(
-                                    "status", "failed",
-                                    "timestamp", System.currentTimeMillis(),
-                                    "message", "",
-                                    "url", url,
-                                    "site", site,
-                                    "data", new HashMap<>()
-                            ));
-
+                        return SiteResult.blocked(site, url,
+                                String.format("Blocked by %s (Status: %d)", url, response.status()));
                     }
 
-                    return result;
+                    metrics.time(ScrapeMetrics.PHASE_WAIT, site, () -> siteScraper.awaitResults(page));
+                    return SiteResult.success(site, url,
+                            metrics.time(ScrapeMetrics.PHASE_EXTRACTION, site, () -> siteScraper.extract(page)));
                 } finally {
                     context.close();
-                    browser.close();
                 }
+            } catch (TimeoutError e) {
+                return SiteResult.timedOut(site, url, e.getMessage());
             } catch (Exception e) {
-                return Map.of(
-                    "site", site,
-                        "status", "error",
-                        "message", e.getMessage(),
-                        "data", new ArrayList<>()
-                );
-            }
-        }
-
-        private static Map<String, Object> processCompuTrabajo(Page page, String url, String site) {
-            Map<String, Object> result = new HashMap<>();
-            List<Map<String, String>> resultsCompuTrabajo = new ArrayList<>();
-
-            Locator listItemsCompu = page.locator("div#offersGridOfferContainer > article");
-            listItemsCompu.first().waitFor();
-            int countC = listItemsCompu.count();
-            for (int i = 0; i < countC; i++) {
-                Locator articleItem = listItemsCompu.nth(i);
-                articleItem.waitFor();
-                Map<String, String> content = new HashMap<>();
-
-                content.put("title", articleItem.locator("h2.fs18.fwB").first().innerText());
-                content.put("url", "https://mx.computrabajo.com" + articleItem.locator("a.js-o-link.fc_base").first().getAttribute("href"));
-                content.put("company", articleItem.locator("p.dIB.fs16.fc_base.mt5").first().innerText());
-
-                resultsCompuTrabajo.add(content);
+                return SiteResult.failed(site, url, e.getMessage());
             }
-
-            result.put("data", resultsCompuTrabajo);
-            result.put("status", "success");
-            result.put("url", url);
-            result.put("site", site);
-            result.put("timestamp", System.currentTimeMillis());
-            result.put("message", "");
-
-            return result;
         }
 
-        private static Map<String, Object> processOcc(Page page, String url, String site) {
-            Map<String, Object> result = new HashMap<>();
-            List<Map<String, String>> resultsOcc = new ArrayList<>();
-
-            Locator listItemsOCC = page.locator("[id^='jobcard-']");
-            listItemsOCC.first().waitFor();
-            int countO = listItemsOCC.count();
-            for (int i = 0; i < countO; i++) {
-                Locator occItem = listItemsOCC.nth(i);
-                occItem.waitFor();
-                Map<String, String> content = new HashMap<>();
-
-                content.put("title", occItem.locator("h2").first().innerText());
-                content.put("url", "https://www.occ.com.mx" + occItem.locator("a").first().getAttribute("href"));
-                content.put("company", occItem.locator("a").first().innerText());
-
-                resultsOcc.add(content);
-            }
-
-            result.put("data", resultsOcc);
-            result.put("status", "success");
-            result.put("url", url);
-            result.put("site", site);
-            result.put("timestamp", System.currentTimeMillis());
-            result.put("message", "");
-
-            return result;
-        }
         private void setupPageHandlers(Page page) {
             // Handle JavaScript dialogs automatically
             page.onDialog(dialog -> {
@@ -0,0 +1,130 @@
+package org.example.jobscraperapi.scraper;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Route;
+import com.microsoft.playwright.options.Sizes;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Aborts the requests a scraper page does not need (images, fonts, ads, analytics...)
+ * according to the per-site policy and keeps count of what got through, per page and in
+ * the scraper.requests.* meters by site and resource type.
+ */
+@Component
+@Slf4j
+public class ResourceBlocker {
+    private final ScraperProperties.ResourceBlocking config;
+    private final ScrapeMetrics metrics;
+
+    public ResourceBlocker(ScraperProperties properties, ScrapeMetrics metrics) {
+        this.config = properties.getResourceBlocking();
+        this.metrics = metrics;
+    }
+
+    public NetworkStats install(Page page, String site) {
+        NetworkStats stats = new NetworkStats();
+        ScraperProperties.BlockingPolicy policy = config.forSite(site);
+
+        if (policy.isEnabled()) {
+            Set<String> resourceTypes = policy.getResourceTypes().stream()
+                    .map(type -> type.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            List<String> urlPatterns = lowerCase(policy.getUrlPatterns());
+            List<String> allowUrlPatterns = lowerCase(policy.getAllowUrlPatterns());
+
+            page.route("**/*", route -> {
+                if (shouldBlock(route.request(), resourceTypes, urlPatterns, allowUrlPatterns)) {
+                    stats.blockedRequests.increment();
+                    metrics.requestBlocked(site, route.request().resourceType());
+                    abort(route);
+                } else {
+                    route.resume();
+                }
+            });
+        }
+
+        page.onRequestFinished(request -> {
+            long bytes = transferredBytes(request);
+            stats.allowedRequests.increment();
+            stats.allowedBytes.add(bytes);
+            metrics.requestAllowed(site, request.resourceType(), bytes);
+        });
+
+        return stats;
+    }
+
+    private static boolean shouldBlock(
+            Request request,
+            Set<String> resourceTypes,
+            List<String> urlPatterns,
+            List<String> allowUrlPatterns) {
+        // The document itself is never blocked, whatever the patterns say
+        if (request.isNavigationRequest()) {
+            return false;
+        }
+
+        String url = request.url().toLowerCase(Locale.ROOT);
+        if (allowUrlPatterns.stream().anyMatch(url::contains)) {
+            return false;
+        }
+        return resourceTypes.contains(request.resourceType())
+                || urlPatterns.stream().anyMatch(url::contains);
+    }
+
+    private static void abort(Route route) {
+        try {
+            route.abort("blockedbyclient");
+        } catch (RuntimeException e) {
+            // The page may already be gone when a late request is intercepted
+            log.debug("Could not abort {}: {}", route.request().url(), e.getMessage());
+        }
+    }
+
+    private static long transferredBytes(Request request) {
+        try {
+            Sizes sizes = request.sizes();
+            return Math.max(0, sizes.responseHeadersSize) + Math.max(0, sizes.responseBodySize);
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static List<String> lowerCase(List<String> values) {
+        return values.stream()
+                .map(value -> value.toLowerCase(Locale.ROOT))
+                .toList();
+    }
+
+    public static class NetworkStats {
+        private final LongAdder blockedRequests = new LongAdder();
+        private final LongAdder allowedRequests = new LongAdder();
+        private final LongAdder allowedBytes = new LongAdder();
+
+        public long blockedRequests() {
+            return blockedRequests.sum();
+        }
+
+        public long allowedRequests() {
+            return allowedRequests.sum();
+        }
+
+        public long allowedBytes() {
+            return allowedBytes.sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("blocked=%d allowed=%d allowedBytes=%d",
+                    blockedRequests(), allowedRequests(), allowedBytes());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.jobscraperapi.scraper;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Time budget of one client request, shared by every page scraped for it, which can also
+ * be cancelled when the client goes away. Scraping tasks check it between steps and
+ * bound their navigation and selector waits by what is left of it.
+ *
+ * Playwright objects may only be used from the thread that drives them, so a cancelled
+ * browser task is not closed from the outside: it notices at its next check, at most one
+ * wait slice later, and closes its page and context itself. Waits that do not touch
+ * Playwright, such as for a browser lease or an HTTP response, are interrupted instead.
+ */
+public class ScrapeDeadline {
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private final long startNanos = System.nanoTime();
+    private final long budgetNanos;
+    // Threads blocked in an interruptible wait, guarded by the deadline's monitor
+    private final Set<Thread> waiting = new HashSet<>();
+    private volatile String cancelReason;
+
+    private ScrapeDeadline(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    public static ScrapeDeadline in(Duration budget) {
+        return new ScrapeDeadline(Math.max(0, budget.toNanos()));
+    }
+
+    // Never runs out, only ends when cancelled
+    public static ScrapeDeadline none() {
+        return new ScrapeDeadline(UNBOUNDED);
+    }
+
+    /**
+     * Stops every scrape using this deadline. Only the first reason is kept.
+     */
+    public synchronized void cancel(String reason) {
+        if (cancelReason != null) {
+            return;
+        }
+        cancelReason = reason;
+        waiting.forEach(Thread::interrupt);
+    }
+
+    public boolean isCancelled() {
+        return cancelReason != null;
+    }
+
+    // Cancelled or out of time, nothing more should be scraped for the request
+    public boolean isOver() {
+        return isCancelled() || remainingNanos() == 0;
+    }
+
+    public String reason() {
+        if (cancelReason != null) {
+            return cancelReason;
+        }
+        return String.format("Deadline of %d ms exceeded", Duration.ofNanos(budgetNanos).toMillis());
+    }
+
+    public long remainingNanos() {
+        if (budgetNanos == UNBOUNDED) {
+            return UNBOUNDED;
+        }
+        return Math.max(0, budgetNanos - (System.nanoTime() - startNanos));
+    }
+
+    /**
+     * The given timeout cut down to what is left of the budget.
+     */
+    public Duration bound(Duration timeout) {
+        return Duration.ofNanos(Math.min(timeout.toNanos(), remainingNanos()));
+    }
+
+    /**
+     * Throws {@link Cancelled} once the deadline is over.
+     */
+    public void check() {
+        if (isOver()) {
+            throw new Cancelled(reason());
+        }
+    }
+
+    /**
+     * Runs a blocking wait that is interrupted when the deadline gets cancelled, in which
+     * case {@link Cancelled} is thrown instead of the interruption.
+     */
+    public <T> T interruptible(Callable<T> wait) throws Exception {
+        Thread current = Thread.currentThread();
+        synchronized (this) {
+            check();
+            waiting.add(current);
+        }
+        try {
+            return wait.call();
+        } catch (InterruptedException e) {
+            if (isCancelled()) {
+                throw new Cancelled(reason());
+            }
+            throw e;
+        } finally {
+            synchronized (this) {
+                waiting.remove(current);
+                // An interrupt aimed at the wait must not leak into what the thread does next
+                if (isCancelled()) {
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    /**
+     * Thrown by a scrape stopped by its deadline.
+     */
+    public static class Cancelled extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public Cancelled(String reason) {
+            super(reason);
+        }
+    }
+}
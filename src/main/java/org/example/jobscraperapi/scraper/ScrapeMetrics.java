@@ -0,0 +1,123 @@
+package org.example.jobscraperapi.scraper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.jobscraperapi.model.EnrichedPosting;
+import org.example.jobscraperapi.model.SiteResult;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters of the scrape pipeline. Phases are timed per site with histograms,
+ * so the slow step of a slow site shows up on its own.
+ */
+@Component
+public class ScrapeMetrics {
+    public static final String PHASE_ACQUIRE = "acquire";
+    public static final String PHASE_CONTEXT = "context";
+    public static final String PHASE_NAVIGATION = "navigation";
+    public static final String PHASE_WAIT = "wait";
+    public static final String PHASE_EXTRACTION = "extraction";
+    public static final String PHASE_HTTP_FETCH = "http-fetch";
+    public static final String PHASE_HTTP_PARSE = "http-parse";
+    // Reading the detail fields of a posting page
+    public static final String PHASE_DETAIL = "detail";
+
+    private final MeterRegistry registry;
+
+    public ScrapeMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T time(String phase, String site, Supplier<T> action) {
+        return phaseTimer(phase, site).record(action);
+    }
+
+    public void time(String phase, String site, Runnable action) {
+        phaseTimer(phase, site).record(action);
+    }
+
+    public void record(String phase, String site, long nanos) {
+        phaseTimer(phase, site).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T timeLaunch(Supplier<T> action) {
+        return Timer.builder("scraper.browser.launch")
+                .description("Time to launch a pooled browser")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(action);
+    }
+
+    /**
+     * Counts a finished page scrape by site, status (success, blocked, failed, timeout, error) and
+     * whether it went through HTTP or the browser.
+     */
+    public void taskFinished(SiteResult result) {
+        Counter.builder("scraper.tasks")
+                .description("Result pages scraped")
+                .tag("site", String.valueOf(result.site()))
+                .tag("status", String.valueOf(result.status()))
+                .tag("mode", result.mode() == null ? "browser" : result.mode())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Counts a posting enriched with its detail page by site, status and mode.
+     */
+    public void enrichmentFinished(EnrichedPosting result) {
+        Counter.builder("scraper.enrichments")
+                .description("Posting detail pages read")
+                .tag("site", String.valueOf(result.posting().site()))
+                .tag("status", String.valueOf(result.status()))
+                .tag("mode", result.mode() == null ? "none" : result.mode())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Counts a request a scraper page made, blocked or let through, by site and resource
+     * type (document, script, image...). Bytes are counted for the requests let through.
+     */
+    public void requestBlocked(String site, String resourceType) {
+        requestCounter("scraper.requests.blocked", "Requests of scraper pages aborted", site, resourceType)
+                .increment();
+    }
+
+    public void requestAllowed(String site, String resourceType, long bytes) {
+        requestCounter("scraper.requests.allowed", "Requests of scraper pages let through", site, resourceType)
+                .increment();
+        Counter.builder("scraper.requests.allowed.bytes")
+                .description("Bytes transferred by the requests let through")
+                .baseUnit("bytes")
+                .tag("site", site)
+                .tag("type", resourceType)
+                .register(registry)
+                .increment(bytes);
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    private Counter requestCounter(String name, String description, String site, String resourceType) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("site", site)
+                .tag("type", resourceType)
+                .register(registry);
+    }
+
+    private Timer phaseTimer(String phase, String site) {
+        return Timer.builder("scraper.phase")
+                .description("Time spent in one phase of a page scrape")
+                .tag("phase", phase)
+                .tag("site", site)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.jobscraperapi.scraper;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Declarative description of a job board as written in the site definitions file.
+ */
+@Data
+public class SiteDefinition {
+    private String name;
+    private boolean enabled = true;
+    // Search URL with a {keywords} placeholder
+    private String urlTemplate;
+    // Joins the typed keywords inside the URL
+    private String keywordSeparator = "-";
+    // Query parameter holding the result page number, page 1 goes without it
+    private String pageParameter;
+    private int pageDepth = 1;
+    // "http" reads server-rendered pages without a browser and falls back to it when
+    // no card is found, "browser" always renders the page
+    private String fetchMode = "browser";
+    private String cardSelector;
+    private Map<String, JobCardExtractor.Field> fields = new LinkedHashMap<>();
+    private int maxConcurrency = 2;
+    private long timeoutMs = 10_000;
+    // Fields read from each posting's own page, postings of sites without it cannot be enriched
+    private Detail detail;
+
+    @Data
+    public static class Detail {
+        // Element holding the posting on its page, fields are read relative to it
+        private String containerSelector = "body";
+        // Same meaning as the site's fetch mode, which applies when left out
+        private String fetchMode;
+        private Map<String, JobCardExtractor.Field> fields = new LinkedHashMap<>();
+    }
+}
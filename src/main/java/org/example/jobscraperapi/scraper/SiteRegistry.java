@@ -0,0 +1,147 @@
+package org.example.jobscraperapi.scraper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Job boards known to the scrapers. Sites come from {@link SiteScraper} beans and from
+ * the site definitions file, which wins on name clashes and is reloaded when it changes.
+ */
+@Component
+@Slf4j
+public class SiteRegistry {
+    private static final Pattern ORIGIN = Pattern.compile("[a-zA-Z][a-zA-Z0-9+.-]*://[^/?#]*");
+
+    private final ScraperProperties.Sites config;
+    private final List<SiteScraper> pluggedIn;
+    private final ObjectMapper objectMapper;
+    private final Resource resource;
+    // Replaced as a whole on reload, readers always see a complete set in file order
+    private volatile Map<String, SiteScraper> sites = Map.of();
+    private volatile long lastModified = -1;
+
+    public SiteRegistry(ScraperProperties properties, List<SiteScraper> pluggedIn, ObjectMapper objectMapper) {
+        this.config = properties.getSites();
+        this.pluggedIn = List.copyOf(pluggedIn);
+        this.objectMapper = objectMapper;
+        this.resource = new DefaultResourceLoader().getResource(config.getLocation());
+    }
+
+    @PostConstruct
+    public void load() {
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Could not load site definitions from " + config.getLocation(), e);
+        }
+    }
+
+    public Collection<SiteScraper> all() {
+        return sites.values();
+    }
+
+    public Optional<SiteScraper> find(String name) {
+        return Optional.ofNullable(sites.get(name));
+    }
+
+    /**
+     * Reads the definitions file again. On any error the sites loaded before stay in place.
+     */
+    public synchronized List<String> reload() throws IOException {
+        long modified = lastModifiedOf(resource);
+        Map<String, SiteScraper> loaded = new LinkedHashMap<>();
+        for (SiteScraper site : pluggedIn) {
+            loaded.put(site.name(), site);
+        }
+
+        try (InputStream input = resource.getInputStream()) {
+            Definitions definitions = objectMapper.readValue(input, Definitions.class);
+            for (SiteDefinition definition : definitions.getSites()) {
+                if (definition.isEnabled()) {
+                    loaded.put(definition.getName(), new DeclarativeSiteScraper(rebased(definition)));
+                } else {
+                    loaded.remove(definition.getName());
+                }
+            }
+        }
+
+        sites = Collections.unmodifiableMap(loaded);
+        lastModified = modified;
+        log.info("Loaded sites {} from {}", loaded.keySet(), config.getLocation());
+        return new ArrayList<>(loaded.keySet());
+    }
+
+    @Scheduled(
+            initialDelayString = "${scraper.sites.reload-interval:PT10S}",
+            fixedDelayString = "${scraper.sites.reload-interval:PT10S}")
+    public void reloadIfChanged() {
+        long modified = lastModifiedOf(resource);
+        if (modified <= 0 || modified == lastModified) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            log.error("Keeping previous sites, could not reload {}", config.getLocation(), e);
+        }
+    }
+
+    /**
+     * Moves the site to its configured base URL: the scheme and host of the URL template
+     * are replaced, and so are field prefixes that pointed at the same origin.
+     */
+    private SiteDefinition rebased(SiteDefinition definition) {
+        String baseUrl = config.getBaseUrls().get(definition.getName());
+        if (baseUrl == null || baseUrl.isBlank() || definition.getUrlTemplate() == null) {
+            return definition;
+        }
+        Matcher origin = ORIGIN.matcher(definition.getUrlTemplate());
+        if (!origin.lookingAt()) {
+            throw new IllegalArgumentException("Cannot rebase " + definition.getName()
+                    + ", its URL template has no scheme and host: " + definition.getUrlTemplate());
+        }
+        String oldOrigin = origin.group();
+        String newOrigin = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+
+        definition.setUrlTemplate(newOrigin + definition.getUrlTemplate().substring(oldOrigin.length()));
+        Map<String, JobCardExtractor.Field> fields = new LinkedHashMap<>();
+        definition.getFields().forEach((name, field) -> fields.put(name, oldOrigin.equals(field.prefix())
+                ? new JobCardExtractor.Field(field.selector(), field.attribute(), newOrigin)
+                : field));
+        definition.setFields(fields);
+        return definition;
+    }
+
+    // Only file locations can change at runtime, classpath resources report -1
+    private static long lastModifiedOf(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Data
+    private static class Definitions {
+        private List<SiteDefinition> sites = new ArrayList<>();
+    }
+}
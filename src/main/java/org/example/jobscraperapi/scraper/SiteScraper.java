@@ -0,0 +1,112 @@
+package org.example.jobscraperapi.scraper;
+
+import com.microsoft.playwright.Page;
+import org.example.jobscraperapi.model.JobPosting;
+import org.jsoup.nodes.Document;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the scraping tasks need to know about one job board. Implementations are
+ * picked up by {@link SiteRegistry}, either as Spring beans or from the site definitions
+ * file.
+ */
+public interface SiteScraper {
+
+    String name();
+
+    String buildUrl(String keywords, int page);
+
+    /**
+     * Whether the URL has the same scheme, host and port as this site's search pages,
+     * after any configured base URL. Posting pages are only ever read from there.
+     */
+    default boolean ownsUrl(String url) {
+        try {
+            URI candidate = URI.create(url.strip());
+            URI own = URI.create(buildUrl("empleo", 1));
+            return candidate.getScheme() != null && candidate.getHost() != null
+                    && candidate.getScheme().equalsIgnoreCase(own.getScheme())
+                    && candidate.getHost().equalsIgnoreCase(own.getHost())
+                    && effectivePort(candidate) == effectivePort(own);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static int effectivePort(URI uri) {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    // Result pages read per scrape
+    int pageDepth();
+
+    // Tasks of this site allowed to run at the same time
+    int maxConcurrency();
+
+    // Navigation and selector wait budget for one page
+    Duration timeout();
+
+    /**
+     * Waits until the postings of a freshly navigated result page can be read. Called
+     * before {@link #extract(Page)}.
+     */
+    default void awaitResults(Page page) {
+    }
+
+    /**
+     * Reads the postings of a loaded result page.
+     */
+    List<JobPosting> extract(Page page);
+
+    // Whether result pages are server-rendered and can be read without a browser
+    default boolean httpFetchable() {
+        return false;
+    }
+
+    /**
+     * Reads the postings from the raw HTML of a result page, for sites that are
+     * {@link #httpFetchable()}.
+     */
+    default List<JobPosting> extract(Document document) {
+        throw new UnsupportedOperationException(name() + " can only be scraped with a browser");
+    }
+
+    // Whether postings of this site have detail fields (description, salary...) on their own page
+    default boolean hasDetails() {
+        return false;
+    }
+
+    // Whether posting pages are server-rendered and their details can be read without a browser
+    default boolean detailsHttpFetchable() {
+        return false;
+    }
+
+    /**
+     * Waits until the details of a freshly navigated posting page can be read.
+     */
+    default void awaitDetails(Page page) {
+    }
+
+    /**
+     * Reads the detail fields of a loaded posting page, fields the page did not have are
+     * null.
+     */
+    default Map<String, String> extractDetails(Page page) {
+        throw new UnsupportedOperationException(name() + " has no posting details");
+    }
+
+    /**
+     * Reads the detail fields from the raw HTML of a posting page, for sites whose
+     * details are {@link #detailsHttpFetchable()}.
+     */
+    default Map<String, String> extractDetails(Document document) {
+        throw new UnsupportedOperationException(name() + " posting details can only be read with a browser");
+    }
+}
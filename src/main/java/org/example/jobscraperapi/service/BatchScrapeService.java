@@ -0,0 +1,314 @@
+package org.example.jobscraperapi.service;
+
+import com.microsoft.playwright.BrowserContext;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.BatchResult;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.example.jobscraperapi.scraper.BrowserPool;
+import org.example.jobscraperapi.scraper.HttpSiteFetcher;
+import org.example.jobscraperapi.scraper.PlaywrightConcurrent;
+import org.example.jobscraperapi.scraper.ResourceBlocker;
+import org.example.jobscraperapi.scraper.ScrapeDeadline;
+import org.example.jobscraperapi.scraper.ScrapeMetrics;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.example.jobscraperapi.scraper.SiteScraper;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scrapes many keyword sets as one job. A page that several sets lead to is scraped
+ * once and cached pages are not scraped at all. The rest is split into runs of up to
+ * pagesPerContext pages of one site, queued on the {@link ScrapeDispatcher} like any
+ * client scrape, so the global and per-site limits apply. A run reads its pages one
+ * after the other, the browser ones as tabs of one context instead of a context per
+ * page, and gives its browser back when it ends. Nothing is kept from one batch to the
+ * next.
+ */
+@Service
+@Slf4j
+public class BatchScrapeService {
+    private final BrowserPool browserPool;
+    private final ResourceBlocker resourceBlocker;
+    private final ScrapeMetrics metrics;
+    private final PolitenessScheduler politenessScheduler;
+    private final ScrapeResultCache resultCache;
+    private final SiteRegistry siteRegistry;
+    private final HttpSiteFetcher httpFetcher;
+    private final PostingStore postingStore;
+    private final KeywordPopularity keywordPopularity;
+    private final SiteLimiter siteLimiter;
+    private final ScrapeDispatcher dispatcher;
+    private final ScraperProperties.Batch config;
+
+    public BatchScrapeService(
+            BrowserPool browserPool,
+            ResourceBlocker resourceBlocker,
+            ScrapeMetrics metrics,
+            PolitenessScheduler politenessScheduler,
+            ScrapeResultCache resultCache,
+            SiteRegistry siteRegistry,
+            HttpSiteFetcher httpFetcher,
+            PostingStore postingStore,
+            KeywordPopularity keywordPopularity,
+            SiteLimiter siteLimiter,
+            ScrapeDispatcher dispatcher,
+            ScraperProperties properties) {
+        this.browserPool = browserPool;
+        this.resourceBlocker = resourceBlocker;
+        this.metrics = metrics;
+        this.politenessScheduler = politenessScheduler;
+        this.resultCache = resultCache;
+        this.siteRegistry = siteRegistry;
+        this.httpFetcher = httpFetcher;
+        this.postingStore = postingStore;
+        this.keywordPopularity = keywordPopularity;
+        this.siteLimiter = siteLimiter;
+        this.dispatcher = dispatcher;
+        this.config = properties.getBatch();
+    }
+
+    /**
+     * Scrapes every keyword set and returns their results grouped per set, identical sets
+     * only once. Throws IllegalArgumentException when there are none or too many, and
+     * IllegalStateException when the dispatcher's queue has no room for the batch.
+     */
+    public Outcome scrape(List<String> keywordSets, Integer budgetSeconds) {
+        List<String> searches = distinctSearches(keywordSets);
+        if (searches.isEmpty()) {
+            throw new IllegalArgumentException("At least one keyword set is required");
+        }
+        if (searches.size() > config.getMaxKeywordSets()) {
+            throw new IllegalArgumentException(String.format(
+                    "At most %d keyword sets per batch", config.getMaxKeywordSets()));
+        }
+        ScrapeDeadline deadline = ScrapeDeadline.in(budget(budgetSeconds));
+
+        // Pages keyed by URL, so one that several searches lead to is planned once
+        Map<String, List<ScrapeTarget>> plans = new LinkedHashMap<>();
+        Map<String, PlannedPage> pages = new LinkedHashMap<>();
+        int plannedPages = 0;
+        for (String keywords : searches) {
+            keywordPopularity.record(keywords);
+            List<ScrapeTarget> targets = ScrapeTarget.plan(siteRegistry.all(), keywords);
+            plans.put(keywords, targets);
+            plannedPages += targets.size();
+            for (ScrapeTarget target : targets) {
+                pages.computeIfAbsent(target.url(), url -> new PlannedPage(target)).keywords.add(keywords);
+            }
+        }
+
+        Map<String, SiteResult> results = new ConcurrentHashMap<>();
+        List<PlannedPage> toScrape = new ArrayList<>();
+        for (PlannedPage page : pages.values()) {
+            SiteResult cached = cachedResult(page);
+            if (cached != null) {
+                results.put(page.target.url(), cached);
+            } else {
+                toScrape.add(page);
+            }
+        }
+        long startTime = System.currentTimeMillis();
+        runSites(toScrape, deadline, results);
+        log.info("Batch of {} keyword sets: {} pages planned, {} unique, {} scraped in {} ms",
+                searches.size(), plannedPages, pages.size(), toScrape.size(),
+                System.currentTimeMillis() - startTime);
+
+        List<BatchResult> grouped = new ArrayList<>(plans.size());
+        plans.forEach((keywords, targets) -> grouped.add(new BatchResult(keywords, targets.stream()
+                .map(target -> results.get(target.url()).withPage(target.page()))
+                .toList())));
+        return new Outcome(grouped, plannedPages, pages.size(), toScrape.size());
+    }
+
+    private static List<String> distinctSearches(List<String> keywordSets) {
+        Set<String> searches = new LinkedHashSet<>();
+        if (keywordSets != null) {
+            for (String keywords : keywordSets) {
+                if (keywords != null && !keywords.isBlank()) {
+                    searches.add(keywords.strip());
+                }
+            }
+        }
+        return new ArrayList<>(searches);
+    }
+
+    private Duration budget(Integer requestedSeconds) {
+        if (requestedSeconds == null || requestedSeconds <= 0) {
+            return config.getBudget();
+        }
+        Duration requested = Duration.ofSeconds(requestedSeconds);
+        return requested.compareTo(config.getBudget()) < 0 ? requested : config.getBudget();
+    }
+
+    // Any search leading to the page may have it cached
+    private SiteResult cachedResult(PlannedPage page) {
+        for (String keywords : page.keywords) {
+            SiteResult cached = resultCache.lookup(keywords, page.target.siteName(), page.target.page());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    private void runSites(List<PlannedPage> pages, ScrapeDeadline deadline, Map<String, SiteResult> results) {
+        if (pages.isEmpty()) {
+            return;
+        }
+        Map<SiteScraper, List<PlannedPage>> bySite = new LinkedHashMap<>();
+        for (PlannedPage page : pages) {
+            bySite.computeIfAbsent(page.target.site(), site -> new ArrayList<>()).add(page);
+        }
+        List<List<PlannedPage>> runs = new ArrayList<>();
+        int pagesPerRun = Math.max(1, config.getPagesPerContext());
+        for (List<PlannedPage> sitePages : bySite.values()) {
+            for (int from = 0; from < sitePages.size(); from += pagesPerRun) {
+                runs.add(sitePages.subList(from, Math.min(from + pagesPerRun, sitePages.size())));
+            }
+        }
+        if (!dispatcher.tryAdmit(runs.size())) {
+            throw new IllegalStateException("Too many scrapes in progress, try again later");
+        }
+
+        String sessionId = "batch-" + UUID.randomUUID();
+        CountDownLatch done = new CountDownLatch(runs.size());
+        for (List<PlannedPage> run : runs) {
+            SiteScraper site = run.get(0).target.site();
+            dispatcher.enqueue(sessionId, site.name(), site.maxConcurrency(), () -> {
+                try (SiteRun siteRun = new SiteRun(deadline)) {
+                    for (PlannedPage page : run) {
+                        results.put(page.target.url(), siteRun.scrape(page));
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        try {
+            if (!done.await(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS)) {
+                // Runs still queued never start, the running ones stop at their next deadline check
+                int dropped = dispatcher.cancel(sessionId);
+                for (int i = 0; i < dropped; i++) {
+                    done.countDown();
+                }
+                done.await();
+            }
+        } catch (InterruptedException e) {
+            dispatcher.cancel(sessionId);
+            Thread.currentThread().interrupt();
+        }
+        for (PlannedPage page : pages) {
+            results.putIfAbsent(page.target.url(),
+                    SiteResult.cancelled(page.target.siteName(), page.target.url(), deadline.isOver()
+                            ? deadline.reason() : "Batch interrupted"));
+        }
+    }
+
+    private static void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public record Outcome(List<BatchResult> results, int plannedPages, int uniquePages, int scrapedPages) {
+    }
+
+    private static class PlannedPage {
+        private final ScrapeTarget target;
+        // Searches leading to this page
+        private final List<String> keywords = new ArrayList<>();
+
+        PlannedPage(ScrapeTarget target) {
+            this.target = target;
+        }
+    }
+
+    /**
+     * One run of a site's pages, confined to its dispatcher task like the Playwright
+     * objects it holds. A browser is leased the first time one of its pages needs it and
+     * given back when the run ends; the pages are tabs of one context on it.
+     */
+    private class SiteRun implements AutoCloseable {
+        private final ScrapeDeadline deadline;
+        private BrowserPool.Lease lease;
+        private BrowserContext context;
+
+        SiteRun(ScrapeDeadline deadline) {
+            this.deadline = deadline;
+        }
+
+        SiteResult scrape(PlannedPage page) {
+            ScrapeTarget target = page.target;
+            String site = target.siteName();
+            SiteResult result;
+            if (deadline.isOver()) {
+                result = SiteResult.cancelled(site, target.url(), deadline.reason());
+            } else {
+                try {
+                    // Wait out the site's backoff, then this domain's politeness slot
+                    pause(Math.min(siteLimiter.backoffNanos(site), deadline.remainingNanos()));
+                    politenessScheduler.slotFor(target.url()).join();
+
+                    PlaywrightConcurrent.PlaywrightTask task = new PlaywrightConcurrent.PlaywrightTask(
+                            browserPool, resourceBlocker, metrics, target.site(), target.url(), deadline);
+                    result = siteLimiter.guard(site, target.site().maxConcurrency(), target.url(),
+                            () -> httpFetcher.fetchOrFallback(target.site(), target.url(),
+                                    () -> task.scrapeIn(contextFor(target.site())), deadline));
+                } catch (ScrapeDeadline.Cancelled e) {
+                    result = SiteResult.cancelled(site, target.url(), e.getMessage());
+                } catch (Exception e) {
+                    log.error("Error scraping {}", target.url(), e);
+                    result = SiteResult.error(site, target.url(), String.valueOf(e.getMessage()));
+                }
+            }
+
+            result = result.withPage(target.page());
+            for (String keywords : page.keywords) {
+                resultCache.put(keywords, site, target.page(), result);
+            }
+            postingStore.record(result);
+            return result;
+        }
+
+        private BrowserContext contextFor(SiteScraper site) throws Exception {
+            if (lease == null) {
+                long acquireStart = System.nanoTime();
+                lease = deadline.interruptible(() -> browserPool.acquire(Duration.ofNanos(deadline.remainingNanos())));
+                metrics.record(ScrapeMetrics.PHASE_ACQUIRE, site.name(), System.nanoTime() - acquireStart);
+            }
+            if (context == null) {
+                long contextStart = System.nanoTime();
+                context = PlaywrightConcurrent.newContext(lease);
+                metrics.record(ScrapeMetrics.PHASE_CONTEXT, site.name(), System.nanoTime() - contextStart);
+            }
+            return context;
+        }
+
+        // The lease closes the context opened through it and gives the browser back
+        @Override
+        public void close() {
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fingerprints of the postings seen per keywords and site, used by delta scrapes to send
+ * only postings that are new or changed. A posting is keyed by a 64-bit hash of its
+ * normalized URL and remembers a hash of its content and when that content was first seen.
+ */
+@Component
+public class DeltaTracker {
+    private final ScraperProperties.Delta config;
+    // Access-ordered, the least recently scraped keyword and site pair goes first
+    private final LinkedHashMap<String, Scope> scopes = new LinkedHashMap<>(16, 0.75f, true);
+
+    public DeltaTracker(ScraperProperties properties) {
+        this.config = properties.getDelta();
+    }
+
+    /**
+     * Records the postings of a result page and returns the ones the client has not seen:
+     * new or changed after {@code since} (epoch millis), or, without it, unknown before
+     * this call.
+     */
+    public List<JobPosting> fresh(String keywords, String site, List<JobPosting> postings, Long since) {
+        Scope scope = scope(site + ":" + ScrapeResultCache.normalizeKeywords(keywords));
+        long now = System.currentTimeMillis();
+        List<JobPosting> fresh = new ArrayList<>();
+
+        synchronized (scope) {
+            for (JobPosting posting : postings) {
+                long content = fingerprint(posting.title() + '\u0000' + posting.company());
+                long key = posting.url() == null ? content : fingerprint(PostingStore.normalizeUrl(posting.url()));
+
+                // Re-inserted on every sighting, so postings still listed are trimmed last
+                Fingerprint known = scope.fingerprints.remove(key);
+                if (known == null || known.content() != content) {
+                    scope.fingerprints.put(key, new Fingerprint(content, now));
+                    fresh.add(posting);
+                } else {
+                    scope.fingerprints.put(key, known);
+                    if (since != null && known.changedAt() > since) {
+                        fresh.add(posting);
+                    }
+                }
+            }
+            scope.trim(config.getMaxPostingsPerScope());
+        }
+        return fresh;
+    }
+
+    public synchronized int scopes() {
+        return scopes.size();
+    }
+
+    private synchronized Scope scope(String key) {
+        Scope scope = scopes.computeIfAbsent(key, k -> new Scope());
+        while (scopes.size() > config.getMaxScopes()) {
+            scopes.remove(scopes.keySet().iterator().next());
+        }
+        return scope;
+    }
+
+    // 64-bit FNV-1a, collisions are negligible for the few thousand postings of one scope
+    static long fingerprint(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static class Scope {
+        // Insertion-ordered, the posting seen longest ago comes first
+        private final LinkedHashMap<Long, Fingerprint> fingerprints = new LinkedHashMap<>();
+
+        void trim(int max) {
+            Iterator<Map.Entry<Long, Fingerprint>> oldest = fingerprints.entrySet().iterator();
+            while (fingerprints.size() > max && oldest.hasNext()) {
+                oldest.next();
+                oldest.remove();
+            }
+        }
+    }
+
+    private record Fingerprint(long content, long changedAt) {
+    }
+}
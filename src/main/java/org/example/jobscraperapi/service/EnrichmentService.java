@@ -0,0 +1,418 @@
+package org.example.jobscraperapi.service;
+
+import com.microsoft.playwright.BrowserContext;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.EnrichedPosting;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.example.jobscraperapi.scraper.BrowserPool;
+import org.example.jobscraperapi.scraper.DetailTabs;
+import org.example.jobscraperapi.scraper.HttpSiteFetcher;
+import org.example.jobscraperapi.scraper.PlaywrightConcurrent;
+import org.example.jobscraperapi.scraper.ResourceBlocker;
+import org.example.jobscraperapi.scraper.ScrapeDeadline;
+import org.example.jobscraperapi.scraper.ScrapeMetrics;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.example.jobscraperapi.scraper.SiteScraper;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Reads the pages of postings for the fields a result list does not show, such as the
+ * description, salary and location. Nothing is read until asked for, either one posting
+ * at a time or a list streamed back as each posting is read.
+ *
+ * Each site is read as one task of the scrape dispatcher, so detail reads share the
+ * workers and per-site concurrency of page scrapes. Server-rendered sites are fetched
+ * over plain HTTP a few pages at a time; the others, and any page the HTTP fetch did not
+ * work for, are opened as a few tabs of one browser context per site. Every page waits
+ * for the site's backoff and its domain's politeness slot, goes through the site
+ * limiter's circuit breaker, and read postings are cached by URL.
+ */
+@Service
+@Slf4j
+public class EnrichmentService {
+    private static final String UNAVAILABLE = "Site temporarily unavailable after refusing too many requests";
+
+    private final BrowserPool browserPool;
+    private final ResourceBlocker resourceBlocker;
+    private final ScrapeMetrics metrics;
+    private final PolitenessScheduler politenessScheduler;
+    private final SiteRegistry siteRegistry;
+    private final HttpSiteFetcher httpFetcher;
+    private final ScrapeDispatcher dispatcher;
+    private final SiteLimiter siteLimiter;
+    private final ScraperProperties.Enrichment config;
+    // Enriched postings by normalized URL, the least recently used is dropped first
+    private final Map<String, EnrichedPosting> cache;
+
+    public EnrichmentService(
+            BrowserPool browserPool,
+            ResourceBlocker resourceBlocker,
+            ScrapeMetrics metrics,
+            PolitenessScheduler politenessScheduler,
+            SiteRegistry siteRegistry,
+            HttpSiteFetcher httpFetcher,
+            ScrapeDispatcher dispatcher,
+            SiteLimiter siteLimiter,
+            ScraperProperties properties) {
+        this.browserPool = browserPool;
+        this.resourceBlocker = resourceBlocker;
+        this.metrics = metrics;
+        this.politenessScheduler = politenessScheduler;
+        this.siteRegistry = siteRegistry;
+        this.httpFetcher = httpFetcher;
+        this.dispatcher = dispatcher;
+        this.siteLimiter = siteLimiter;
+        this.config = properties.getEnrichment();
+        int cacheEntries = config.getCacheEntries();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EnrichedPosting> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+    }
+
+    /**
+     * Reads one posting's page, or answers from the cache when it was read before.
+     */
+    public EnrichedPosting enrich(JobPosting posting) {
+        requireSiteUrls(List.of(posting));
+        List<EnrichedPosting> results = Collections.synchronizedList(new ArrayList<>(1));
+        enrich(List.of(posting), ScrapeDeadline.in(config.getBudget()), results::add);
+        return results.getFirst();
+    }
+
+    /**
+     * Streams a "details" event per posting as soon as it is read, then a "complete"
+     * event. Repeated URLs are read and answered once. Cancelling the subscription stops
+     * the remaining pages from being opened. Bad requests, a posting URL off its site's
+     * origin included, are answered with a single "error" event before anything is read.
+     */
+    public Flux<ServerSentEvent<Object>> stream(List<JobPosting> postings) {
+        if (postings == null || postings.isEmpty()) {
+            return Flux.just(event("error", "At least one posting is required"));
+        }
+        if (postings.size() > config.getMaxPostings()) {
+            return Flux.just(event("error", String.format(
+                    "At most %d postings per request", config.getMaxPostings())));
+        }
+        String offSite = offSiteUrl(postings);
+        if (offSite != null) {
+            return Flux.just(event("error", offSite));
+        }
+
+        return Flux.create(sink -> {
+            ScrapeDeadline deadline = ScrapeDeadline.in(config.getBudget());
+            sink.onDispose(() -> deadline.cancel("Client disconnected"));
+            Thread.ofVirtual().name("enrichment").start(() -> {
+                long startTime = System.currentTimeMillis();
+                AtomicInteger total = new AtomicInteger();
+                AtomicInteger enriched = new AtomicInteger();
+                try {
+                    enrich(postings, deadline, result -> {
+                        total.incrementAndGet();
+                        if (result.isSuccess()) {
+                            enriched.incrementAndGet();
+                        }
+                        sink.next(event("details", result));
+                    });
+                    sink.next(event("complete", Map.of(
+                            "total", total.get(),
+                            "enriched", enriched.get(),
+                            "totalTime", System.currentTimeMillis() - startTime)));
+                    sink.complete();
+                } catch (RuntimeException e) {
+                    log.error("Error enriching postings", e);
+                    sink.error(e);
+                }
+            });
+        });
+    }
+
+    public Map<String, Object> stats() {
+        synchronized (cache) {
+            return Map.of("cachedPostings", cache.size(), "maxCachedPostings", config.getCacheEntries());
+        }
+    }
+
+    private void requireSiteUrls(List<JobPosting> postings) {
+        String offSite = offSiteUrl(postings);
+        if (offSite != null) {
+            throw new IllegalArgumentException(offSite);
+        }
+    }
+
+    // The server would otherwise fetch whatever a client names, internal hosts included.
+    // Checked before the cache, the politeness scheduler or any fetcher sees the URL
+    private String offSiteUrl(List<JobPosting> postings) {
+        for (JobPosting posting : postings) {
+            if (posting == null || posting.url() == null || posting.url().isBlank() || posting.site() == null) {
+                continue;
+            }
+            Optional<SiteScraper> site = siteRegistry.find(posting.site());
+            if (site.isPresent() && !site.get().ownsUrl(posting.url())) {
+                return String.format("URL %s is not a page of site %s", posting.url(), site.get().name());
+            }
+        }
+        return null;
+    }
+
+    // Answers every posting through done, which may be called from several threads at once
+    void enrich(List<JobPosting> postings, ScrapeDeadline deadline, Consumer<EnrichedPosting> done) {
+        Map<SiteScraper, List<JobPosting>> bySite = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (JobPosting posting : postings) {
+            if (posting == null || posting.url() == null || posting.url().isBlank()) {
+                done.accept(EnrichedPosting.unsupported(posting, "The posting has no URL"));
+                continue;
+            }
+            String url = PostingStore.normalizeUrl(posting.url());
+            if (!seen.add(url)) {
+                continue;
+            }
+            Optional<SiteScraper> site = posting.site() == null ? Optional.empty() : siteRegistry.find(posting.site());
+            if (site.isEmpty() || !site.get().hasDetails()) {
+                done.accept(EnrichedPosting.unsupported(posting, "No detail fields for site " + posting.site()));
+                continue;
+            }
+            EnrichedPosting cached = cached(url);
+            if (cached != null) {
+                done.accept(cached);
+                continue;
+            }
+            bySite.computeIfAbsent(site.get(), key -> new ArrayList<>()).add(posting);
+        }
+
+        Consumer<EnrichedPosting> record = result -> {
+            if (result.isSuccess()) {
+                synchronized (cache) {
+                    cache.put(PostingStore.normalizeUrl(result.posting().url()), result);
+                }
+            }
+            metrics.enrichmentFinished(result);
+            done.accept(result);
+        };
+        runSites(bySite, deadline, record);
+    }
+
+    // One dispatcher task per site, returns once every posting was answered
+    private void runSites(Map<SiteScraper, List<JobPosting>> bySite, ScrapeDeadline deadline,
+                          Consumer<EnrichedPosting> done) {
+        if (bySite.isEmpty()) {
+            return;
+        }
+        if (!dispatcher.tryAdmit(bySite.size())) {
+            bySite.values().forEach(postings -> postings.forEach(posting -> done.accept(
+                    EnrichedPosting.failed(posting, "Too many scrapes in progress, try again later"))));
+            return;
+        }
+
+        String sessionId = "enrich-" + UUID.randomUUID();
+        CountDownLatch finished = new CountDownLatch(bySite.size());
+        // A site is answered either by its task or, when the task never started, by the caller
+        Map<SiteScraper, AtomicBoolean> claimed = new LinkedHashMap<>();
+        bySite.forEach((site, postings) -> {
+            AtomicBoolean claim = new AtomicBoolean();
+            claimed.put(site, claim);
+            dispatcher.enqueue(sessionId, site.name(), site.maxConcurrency(), () -> {
+                if (!claim.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    enrichSite(site, postings, deadline, done);
+                } catch (RuntimeException e) {
+                    log.error("Error enriching postings of {}", site.name(), e);
+                } finally {
+                    finished.countDown();
+                }
+            });
+        });
+
+        try {
+            deadline.interruptible(() -> finished.await(deadline.remainingNanos(), TimeUnit.NANOSECONDS));
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (finished.getCount() == 0) {
+            return;
+        }
+        // Sites still queued never start, the running ones stop at their next deadline check
+        dispatcher.cancel(sessionId);
+        String reason = deadline.isOver() ? deadline.reason() : "Enrichment interrupted";
+        claimed.forEach((site, claim) -> {
+            if (claim.compareAndSet(false, true)) {
+                bySite.get(site).forEach(posting -> done.accept(EnrichedPosting.cancelled(posting, reason)));
+                finished.countDown();
+            }
+        });
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private EnrichedPosting cached(String url) {
+        synchronized (cache) {
+            return cache.get(url);
+        }
+    }
+
+    private void enrichSite(SiteScraper site, List<JobPosting> postings, ScrapeDeadline deadline,
+                            Consumer<EnrichedPosting> done) {
+        List<JobPosting> forBrowser = site.detailsHttpFetchable()
+                ? fetchOverHttp(site, postings, deadline, done)
+                : postings;
+        if (forBrowser.isEmpty()) {
+            return;
+        }
+
+        BrowserPool.Lease lease;
+        try {
+            lease = deadline.interruptible(() -> browserPool.acquire(Duration.ofNanos(deadline.remainingNanos())));
+        } catch (Exception e) {
+            String message = deadline.isOver() ? deadline.reason() : "No browser available: " + e.getMessage();
+            for (JobPosting posting : forBrowser) {
+                done.accept(deadline.isOver()
+                        ? EnrichedPosting.cancelled(posting, message)
+                        : EnrichedPosting.failed(posting, message));
+            }
+            return;
+        }
+
+        // Only pages let through by the circuit breaker count towards the site's limits
+        Set<String> admitted = ConcurrentHashMap.newKeySet();
+        Consumer<String> beforeNavigation = url -> {
+            pause(Math.min(siteLimiter.backoffNanos(site.name()), deadline.remainingNanos()));
+            politenessScheduler.slotFor(url).join();
+            if (!siteLimiter.tryAcquire(site.name())) {
+                throw new IllegalStateException(UNAVAILABLE);
+            }
+            admitted.add(url);
+        };
+        Consumer<EnrichedPosting> record = result -> {
+            if (admitted.remove(result.posting().url())) {
+                siteLimiter.record(site.name(), site.maxConcurrency(), asSiteResult(site, result));
+            }
+            done.accept(result);
+        };
+
+        try (lease) {
+            BrowserContext context = PlaywrightConcurrent.newContext(lease);
+            try (DetailTabs tabs = new DetailTabs(context, resourceBlocker, metrics, site,
+                    config.getTabsPerContext(), deadline)) {
+                tabs.read(forBrowser, beforeNavigation, record);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    // Postings read over HTTP are answered, the ones left for the browser are returned
+    private List<JobPosting> fetchOverHttp(SiteScraper site, List<JobPosting> postings, ScrapeDeadline deadline,
+                                           Consumer<EnrichedPosting> done) {
+        List<JobPosting> forBrowser = Collections.synchronizedList(new ArrayList<>());
+        Semaphore permits = new Semaphore(Math.max(1, config.getHttpConcurrency()));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (JobPosting posting : postings) {
+                executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        if (deadline.isOver()) {
+                            done.accept(EnrichedPosting.cancelled(posting, deadline.reason()));
+                            return;
+                        }
+                        pause(Math.min(siteLimiter.backoffNanos(site.name()), deadline.remainingNanos()));
+                        politenessScheduler.slotFor(posting.url()).join();
+                        AtomicReference<EnrichedPosting> read = new AtomicReference<>();
+                        SiteResult result = siteLimiter.guard(site.name(), site.maxConcurrency(), posting.url(), () -> {
+                            HttpSiteFetcher.FetchedDocument fetched = httpFetcher.fetchDocument(site, posting.url(), deadline);
+                            if (fetched.refused()) {
+                                read.set(EnrichedPosting.blocked(posting, "HTTP " + fetched.status()));
+                            } else if (fetched.document() != null) {
+                                Map<String, String> details = site.extractDetails(fetched.document());
+                                if (details.values().stream().anyMatch(value -> value != null)) {
+                                    read.set(EnrichedPosting.success(posting, "http", details));
+                                }
+                            }
+                            // Neither read nor refused says nothing about the site's limits
+                            return read.get() == null
+                                    ? SiteResult.error(site.name(), posting.url(), "Not read over HTTP")
+                                    : asSiteResult(site, read.get());
+                        });
+                        if (SiteResult.UNAVAILABLE.equals(result.status())) {
+                            done.accept(EnrichedPosting.failed(posting, UNAVAILABLE));
+                        } else if (read.get() != null) {
+                            done.accept(read.get());
+                        } else if (deadline.isOver()) {
+                            done.accept(EnrichedPosting.cancelled(posting, deadline.reason()));
+                        } else {
+                            // Not fetchable, or rendered client side after all
+                            forBrowser.add(posting);
+                        }
+                    } catch (Exception e) {
+                        log.info("Could not read the details of {} over HTTP: {}", posting.url(), e.getMessage());
+                        forBrowser.add(posting);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return forBrowser;
+    }
+
+    private static SiteResult asSiteResult(SiteScraper site, EnrichedPosting result) {
+        String url = result.posting().url();
+        return switch (result.status()) {
+            case SiteResult.SUCCESS -> SiteResult.success(site.name(), url, List.of());
+            case SiteResult.BLOCKED -> SiteResult.blocked(site.name(), url, result.message());
+            case SiteResult.TIMED_OUT -> SiteResult.timedOut(site.name(), url, result.message());
+            case SiteResult.CANCELLED -> SiteResult.cancelled(site.name(), url, result.message());
+            default -> SiteResult.failed(site.name(), url, result.message());
+        };
+    }
+
+    private static void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+}
@@ -1,58 +1,139 @@
 package org.example.jobscraperapi.service;
 
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.example.jobscraperapi.scraper.BrowserPool;
+import org.example.jobscraperapi.scraper.HttpSiteFetcher;
+import org.example.jobscraperapi.scraper.ResourceBlocker;
+import org.example.jobscraperapi.scraper.ScrapeMetrics;
 import org.example.jobscraperapi.scraper.PlaywrightSequential;
+import org.example.jobscraperapi.scraper.SiteRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.print.attribute.standard.JobKOctets;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 @Service
 @Slf4j
 public class JobScraperSequentialService {
-    private List<Map<String, Object>> results = new ArrayList<>();
+    private final BrowserPool browserPool;
+    private final ResourceBlocker resourceBlocker;
+    private final ScrapeMetrics metrics;
+    private final PolitenessScheduler politenessScheduler;
+    private final ScrapeResultCache resultCache;
+    private final SiteRegistry siteRegistry;
+    private final HttpSiteFetcher httpFetcher;
+    private final PostingStore postingStore;
+    private final KeywordPopularity keywordPopularity;
+    private final SiteLimiter siteLimiter;
+    private final ScrapeDispatcher dispatcher;
+    private final ScraperProperties.Dedupe dedupeConfig;
 
-    public JobScraperSequentialService() {
+    public JobScraperSequentialService(
+            BrowserPool browserPool,
+            ResourceBlocker resourceBlocker,
+            ScrapeMetrics metrics,
+            PolitenessScheduler politenessScheduler,
+            ScrapeResultCache resultCache,
+            SiteRegistry siteRegistry,
+            HttpSiteFetcher httpFetcher,
+            PostingStore postingStore,
+            KeywordPopularity keywordPopularity,
+            SiteLimiter siteLimiter,
+            ScrapeDispatcher dispatcher,
+            ScraperProperties properties) {
+        this.browserPool = browserPool;
+        this.resourceBlocker = resourceBlocker;
+        this.metrics = metrics;
+        this.politenessScheduler = politenessScheduler;
+        this.resultCache = resultCache;
+        this.siteRegistry = siteRegistry;
+        this.httpFetcher = httpFetcher;
+        this.postingStore = postingStore;
+        this.keywordPopularity = keywordPopularity;
+        this.siteLimiter = siteLimiter;
+        this.dispatcher = dispatcher;
+        this.dedupeConfig = properties.getDedupe();
     }
 
-    public List<Map<String, Object>> scrapeJobs(String keywords) {
-        List<List<String>> URLs = buildURLS(keywords);
+    public List<SiteResult> scrapeJobs(String keywords) {
+        List<ScrapeTarget> targets = ScrapeTarget.plan(siteRegistry.all(), keywords);
+        keywordPopularity.record(keywords);
 
-        startScrapingProcess(URLs);
+        // Results of this call only, everything scraped is kept in the posting store
+        List<SiteResult> results = new ArrayList<>(targets.size());
+        startScrapingProcess(keywords, targets, results);
 
-        return results;
+        // The same job from several pages or sites is returned once, with every source URL
+        return PostingDeduplicator.merge(results, dedupeConfig);
     }
 
-    private List<List<String>> buildURLS(String keywords) {
-        String compuURL = "https://mx.computrabajo.com/trabajo-de-%s";
-        String occURL = "https://www.occ.com.mx/empleos/de-%s";
+    private void startScrapingProcess(String keywords, List<ScrapeTarget> targets, List<SiteResult> results) {
+        for (ScrapeTarget target : targets) {
+            String site = target.siteName();
+            int page = target.page();
+            PlaywrightSequential.Task browserTask = new PlaywrightSequential.Task(
+                    browserPool,
+                    resourceBlocker,
+                    metrics,
+                    target.site(),
+                    target.url()
+            );
+            Callable<SiteResult> task = () -> {
+                SiteResult result = siteLimiter.guard(site, target.site().maxConcurrency(), target.url(),
+                        () -> httpFetcher.fetchOrFallback(target.site(), target.url(), browserTask::call));
+                postingStore.record(result);
+                return result;
+            };
 
-        String[] keywordsList = keywords.split("\\s+");
+            // Cached results skip the browser, stale ones get refreshed by the dispatcher in the background
+            SiteResult cached = resultCache.lookup(keywords, site, page);
+            if (cached != null) {
+                if (cached.stale()) {
+                    politenessScheduler.slotFor(target.url())
+                            .thenRun(() -> resultCache.revalidate(keywords, site, page, () -> task.call().withPage(page),
+                                    dispatcher.background(site, target.site().maxConcurrency())));
+                }
+                results.add(cached);
+                continue;
+            }
 
-        String compuURLFormat = String.join("-", keywordsList);
-        compuURL = String.format(compuURL, compuURLFormat);
-        occURL = String.format(occURL, compuURLFormat);
+            // Wait out the site's backoff, then this domain's politeness slot
+            pause(siteLimiter.backoffNanos(site));
+            politenessScheduler.slotFor(target.url()).join();
 
-        return List.of(
-                List.of("computrabajo", compuURL),
-                List.of("occ", occURL)
-        );
-    }
-
-    private void startScrapingProcess(List<List<String>> URLs) {
-        for (List<String> URL : URLs) {
             // Exec scraping for each URL
             // get the result and append it to the result array
-            Map<String, Object> resultJob = new PlaywrightSequential.Task(
-                    URL.get(0),
-                    URL.get(1)
-            ).call();
+            SiteResult resultJob = scrape(task, target).withPage(page);
+            resultCache.put(keywords, site, page, resultJob);
 
             results.add(resultJob);
         }
     }
-}
\ No newline at end of file
+
+    private static void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static SiteResult scrape(Callable<SiteResult> task, ScrapeTarget target) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            log.error("Error scraping {}", target.url(), e);
+            return SiteResult.error(target.siteName(), target.url(), String.valueOf(e.getMessage()));
+        }
+    }
+}
@@ -1,154 +1,336 @@
 package org.example.jobscraperapi.service;
 
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.ScrapingRequest;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.example.jobscraperapi.scraper.BrowserPool;
+import org.example.jobscraperapi.scraper.HttpSiteFetcher;
+import org.example.jobscraperapi.scraper.ResourceBlocker;
+import org.example.jobscraperapi.scraper.ScrapeDeadline;
+import org.example.jobscraperapi.scraper.ScrapeMetrics;
 import org.example.jobscraperapi.scraper.PlaywrightConcurrent;
+import org.example.jobscraperapi.scraper.SiteRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @Slf4j
 public class JobScraperService {
-    private static final int THREAD_POOL_SIZE = 2;
-    private final ExecutorService executorService;
-    private final AtomicBoolean isScrapingActive = new AtomicBoolean(false);
-    private final AtomicInteger completedTasks = new AtomicInteger(0);
-    private long startScrapingTime;
-
-    public JobScraperService() {
-        this.executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+    private final BrowserPool browserPool;
+    private final ResourceBlocker resourceBlocker;
+    private final ScrapeMetrics metrics;
+    private final PolitenessScheduler politenessScheduler;
+    private final ScrapeResultCache resultCache;
+    private final ScrapeDispatcher dispatcher;
+    private final SiteRegistry siteRegistry;
+    private final HttpSiteFetcher httpFetcher;
+    private final PostingStore postingStore;
+    private final DeltaTracker deltaTracker;
+    private final KeywordPopularity keywordPopularity;
+    private final SiteLimiter siteLimiter;
+    private final ScraperProperties.Deadline deadlineConfig;
+    private final ScraperProperties.Dedupe dedupeConfig;
+    // One session per connected client, keyed by emitter ID
+    private final Map<String, ScrapeSession> sessions = new ConcurrentHashMap<>();
+
+    public JobScraperService(
+            BrowserPool browserPool,
+            ResourceBlocker resourceBlocker,
+            ScrapeMetrics metrics,
+            PolitenessScheduler politenessScheduler,
+            ScrapeResultCache resultCache,
+            ScrapeDispatcher dispatcher,
+            SiteRegistry siteRegistry,
+            HttpSiteFetcher httpFetcher,
+            PostingStore postingStore,
+            DeltaTracker deltaTracker,
+            KeywordPopularity keywordPopularity,
+            SiteLimiter siteLimiter,
+            ScraperProperties properties) {
+        this.browserPool = browserPool;
+        this.resourceBlocker = resourceBlocker;
+        this.metrics = metrics;
+        this.politenessScheduler = politenessScheduler;
+        this.resultCache = resultCache;
+        this.dispatcher = dispatcher;
+        this.siteRegistry = siteRegistry;
+        this.httpFetcher = httpFetcher;
+        this.postingStore = postingStore;
+        this.deltaTracker = deltaTracker;
+        this.keywordPopularity = keywordPopularity;
+        this.siteLimiter = siteLimiter;
+        this.deadlineConfig = properties.getDeadline();
+        this.dedupeConfig = properties.getDedupe();
     }
      // "python junior"
-    public void scrapeJobs(SseEmitter emitter, String keywords) {
-        if (isScrapingActive.get()) {
+    public void scrapeJobs(String emitterId, SseEmitter emitter, ScrapingRequest request) {
+        List<ScrapeTarget> targets = ScrapeTarget.plan(siteRegistry.all(), request.getKeywords());
+        ScrapeDeadline deadline = ScrapeDeadline.in(deadlineConfig.budgetFor(request.getBudgetSeconds()));
+        ScrapeSession session = new ScrapeSession(emitterId, emitter, request, targets, deadline,
+                new PostingDeduplicator(dedupeConfig));
+        keywordPopularity.record(request.getKeywords());
+
+        if (sessions.putIfAbsent(emitterId, session) != null) {
+            sendError(emitter, "Scraping is already in progress");
+            return;
+        }
+        if (!dispatcher.tryAdmit(targets.size())) {
+            sessions.remove(emitterId, session);
+            sendError(emitter, "Too many scrapes in progress, try again later");
+            return;
+        }
+
+        startScrapingProcess(session, targets);
+    }
+
+    /**
+     * Forgets the client's session, drops its tasks that did not start yet and cancels
+     * the running ones.
+     */
+    public void endSession(String emitterId) {
+        ScrapeSession session = sessions.remove(emitterId);
+        if (session != null && session.finish()) {
+            session.getDeadline().cancel("Scrape session ended");
+            // Results delivered from now on see the session inactive and leave the count alone
+            session.getLock().lock();
             try {
-                emitter.send(SseEmitter.event()
-                        .name("error")
-                        .data("Scraping is already in progress"));
-                return;
-            } catch (IOException e) {
-                log.error("Error sending error message", e);
-                emitter.completeWithError(e);
-                return;
+                dispatcher.release(session.getDeferredPages().getAndSet(0));
+            } finally {
+                session.getLock().unlock();
             }
+            int dropped = dispatcher.cancel(emitterId);
+            log.info("Session {} ended, {} queued tasks dropped", emitterId, dropped);
         }
+    }
 
-        List<List<String>> URLs = buildURLS(keywords);
-
-        startScrapingTime = System.currentTimeMillis();
+    public int activeSessions() {
+        return sessions.size();
+    }
 
-        startScrapingProcess(emitter, URLs);
+    private void startScrapingProcess(ScrapeSession session, List<ScrapeTarget> targets) {
+        for (ScrapeTarget target : targets) {
+            // Delta scrapes go through a site one page after the other, see continueDelta
+            if (session.isDelta() && target.page() > 1) {
+                session.getDeferredPages().incrementAndGet();
+                continue;
+            }
+            schedule(session, target);
+        }
     }
 
-    private List<List<String>> buildURLS(String keywords) {
-//        String indeedURL = "https://mx.indeed.com/jobs?q=%s";
-        String compuURL = "https://mx.computrabajo.com/trabajo-de-%s";
-        String occURL = "https://www.occ.com.mx/empleos/de-%s";
+    private void schedule(ScrapeSession session, ScrapeTarget target) {
+        String keywords = session.getKeywords();
+        String site = target.siteName();
+        Callable<SiteResult> task = scrapeAndCache(keywords, target, session.getDeadline());
 
-        String[] keywordsList = keywords.split("\\s+");
+        // Cached results are answered right away, stale ones get refreshed in the background,
+        // without the session's deadline since they outlive it
+        SiteResult cached = resultCache.lookup(keywords, site, target.page());
+        if (cached != null) {
+            dispatcher.release(1);
+            if (cached.stale()) {
+                revalidate(keywords, target);
+            }
+            deliverResult(session, target, cached);
+            return;
+        }
+
+        // Queue tasks once their domain's politeness slot comes up, the wait
+        // happens on the scheduler's timer rather than on a worker thread
+        politenessScheduler.slotFor(target.url()).thenRun(() -> {
+            if (!session.isActive()) {
+                dispatcher.release(1);
+                return;
+            }
+            dispatcher.enqueue(session.getId(), site, target.site().maxConcurrency(),
+                    () -> runTask(session, target, task));
+        });
+    }
 
-//        String indeedURLFormat = String.join("+", keywordsList);
-//        indeedURL = String.format(indeedURL, indeedURLFormat);
+    // Refreshes a stale page as a background task of the dispatcher, once its politeness slot comes up
+    void revalidate(String keywords, ScrapeTarget target) {
+        politenessScheduler.slotFor(target.url()).thenRun(() -> resultCache.revalidate(
+                keywords, target.siteName(), target.page(), scrapeAndCache(keywords, target),
+                dispatcher.background(target.siteName(), target.site().maxConcurrency())));
+    }
 
-        String compuURLFormat = String.join("-", keywordsList);
-        compuURL = String.format(compuURL, compuURLFormat);
-        occURL = String.format(occURL, compuURLFormat);
+    // Also used by the prewarm crawler, results land in the cache and the posting store
+    Callable<SiteResult> scrapeAndCache(String keywords, ScrapeTarget target) {
+        return scrapeAndCache(keywords, target, ScrapeDeadline.none());
+    }
 
-        return List.of(
-//                List.of("indeed", indeedURL),
-                List.of("computrabajo", compuURL),
-                List.of("occ", occURL)
+    Callable<SiteResult> scrapeAndCache(String keywords, ScrapeTarget target, ScrapeDeadline deadline) {
+        PlaywrightConcurrent.PlaywrightTask task = new PlaywrightConcurrent.PlaywrightTask(
+                browserPool,
+                resourceBlocker,
+                metrics,
+                target.site(),
+                target.url(),
+                deadline
         );
+        return () -> {
+            SiteResult result = siteLimiter.guard(target.siteName(), target.site().maxConcurrency(), target.url(),
+                    () -> httpFetcher.fetchOrFallback(target.site(), target.url(), task, deadline))
+                    .withPage(target.page());
+            resultCache.put(keywords, target.siteName(), target.page(), result);
+            postingStore.record(result);
+            return result;
+        };
     }
 
-    private void startScrapingProcess(SseEmitter emitter, List<List<String>> URLs) {
-        isScrapingActive.set(true);
-        completedTasks.set(0);
-
-        // Create completion service for handling results as they come in
-        CompletionService<Map<String, Object>> completionService =
-                new ExecutorCompletionService<>(executorService);
-
-        // Submit tasks
-        List<Future<Map<String, Object>>> futures = new ArrayList<>();
-        for (List<String> url : URLs) {
-            futures.add(completionService.submit(new PlaywrightConcurrent.PlaywrightTask(
-                    url.get(0),
-                    url.get(1)
-            )));
+    private void runTask(ScrapeSession session, ScrapeTarget target, Callable<SiteResult> task) {
+        if (!session.isActive()) {
+            return;
         }
 
-        // Handle results in a separate thread
-        executorService.submit(() -> processResults(completionService, futures, emitter));
+        SiteResult result;
+        ScrapeDeadline deadline = session.getDeadline();
+        if (deadline.isOver()) {
+            // Out of time before the page started, it still counts towards the progress
+            result = SiteResult.cancelled(target.siteName(), target.url(), deadline.reason())
+                    .withPage(target.page());
+        } else {
+            try {
+                result = task.call();
+            } catch (Exception e) {
+                log.error("Error processing scraping result", e);
+                result = SiteResult.error(target.siteName(), target.url(), String.valueOf(e.getMessage()))
+                        .withPage(target.page());
+            }
+        }
+        deliverResult(session, target, result);
     }
-    private void processResults(
-            CompletionService<Map<String, Object>> completionService,
-            List<Future<Map<String, Object>>> futures,
-            SseEmitter emitter) {
+
+    private void deliverResult(ScrapeSession session, ScrapeTarget target, SiteResult result) {
+        SseEmitter emitter = session.getEmitter();
+
+        // Results of one session can finish on several workers at once
+        session.getLock().lock();
         try {
-            for (int i = 0; i < futures.size(); i++) {
-                try {
-                    Future<Map<String, Object>> completed = completionService.take();
-                    Map<String, Object> result = completed.get();
+            if (!session.isActive()) {
+                return;
+            }
+
+            try {
+                // Delta scrapes only send what the client has not seen yet
+                SiteResult delivered = !session.isDelta() ? result : result.withFreshPostings(deltaTracker.fresh(
+                        session.getKeywords(), result.site(), result.postings(), session.getDeltaSince()));
 
-                    // Send result through SSE
+                // Send result through SSE, without postings already sent from another page or site
+                PostingDeduplicator.Outcome deduplicated = session.getDeduplicator().apply(delivered);
+                SiteResult unique = deduplicated.result();
+                if (session.isStreaming()) {
+                    sendPostings(emitter, unique);
+                } else {
                     emitter.send(SseEmitter.event()
                             .name("job_data")
-                            .data(result)
+                            .data(unique)
                             .id(String.valueOf(System.currentTimeMillis())));
+                }
+                // Postings sent earlier that turned out to be on this page's site too
+                for (JobPosting merged : deduplicated.merged()) {
+                    emitter.send(SseEmitter.event()
+                            .name("job_merged")
+                            .data(merged));
+                }
 
-                    completedTasks.incrementAndGet();
+                int completed = session.getCompletedTasks().incrementAndGet();
+                ScrapeTarget nextPage = null;
+                List<ScrapeTarget> laterPages = session.isDelta() ? laterPages(session, target) : List.of();
+                if (!laterPages.isEmpty()) {
+                    if (!delivered.postings().isEmpty()) {
+                        nextPage = laterPages.get(0);
+                        session.getDeferredPages().decrementAndGet();
+                    } else {
+                        // Nothing new on this page, the site's remaining pages count as done unscraped
+                        session.getDeferredPages().addAndGet(-laterPages.size());
+                        dispatcher.release(laterPages.size());
+                        completed = session.getCompletedTasks().addAndGet(laterPages.size());
+                    }
+                }
+                int total = session.getTotalTasks();
 
-                    // Send progress update
-                    emitter.send(SseEmitter.event()
-                            .name("progress")
-                            .data(Map.of(
-                                    "completed", completedTasks.get(),
-                                    "total", 2,
-                                    "percentage", (completedTasks.get() * 100.0) / 2
-                            )));
-
-                } catch (ExecutionException | InterruptedException e) {
-                    log.error("Error processing scraping result", e);
-                    Map<String, Object> errorResult = new HashMap<>();
-                    errorResult.put("status", "error");
-                    errorResult.put("error", e.getMessage());
-                    emitter.send(SseEmitter.event()
-                            .name("error")
-                            .data(errorResult));
+                // Send progress update
+                emitter.send(SseEmitter.event()
+                        .name("progress")
+                        .data(Map.of(
+                                "completed", completed,
+                                "total", total,
+                                "percentage", (completed * 100.0) / total
+                        )));
+
+                if (completed == total) {
+                    completeSession(session);
+                } else if (nextPage != null) {
+                    schedule(session, nextPage);
                 }
+            } catch (IOException e) {
+                log.error("Error sending SSE events", e);
+                endSession(session.getId());
+                emitter.completeWithError(e);
             }
+        } finally {
+            session.getLock().unlock();
+        }
+    }
 
-            // All tasks completed
-            long endScrapingTime = System.currentTimeMillis();
-            isScrapingActive.set(false);
-
-            long totalProcessingTime = endScrapingTime - startScrapingTime;
+    // Pages of the target's site after the target's page, in page order
+    private static List<ScrapeTarget> laterPages(ScrapeSession session, ScrapeTarget target) {
+        return session.getTargets().stream()
+                .filter(other -> other.site() == target.site() && other.page() > target.page())
+                .toList();
+    }
 
-            // Send completion event
+    // Streaming mode: one small "job" event per posting so the client can render each
+    // right away, then the page's envelope without postings as "page_done"
+    private static void sendPostings(SseEmitter emitter, SiteResult result) throws IOException {
+        for (JobPosting posting : result.postings()) {
             emitter.send(SseEmitter.event()
-                    .name("complete")
-                    .data(Map.of(
-                            "message", "Scraping completed",
-                            "totalTime", totalProcessingTime,
-                            "totalProcessed", completedTasks.get()
-                    )));
+                    .name("job")
+                    .data(posting));
+        }
+        emitter.send(SseEmitter.event()
+                .name("page_done")
+                .data(result.withPostings(List.of(), result.duplicates()))
+                .id(String.valueOf(System.currentTimeMillis())));
+    }
 
-            emitter.complete();
+    private void completeSession(ScrapeSession session) throws IOException {
+        sessions.remove(session.getId(), session);
+        session.finish();
 
+        long totalProcessingTime = System.currentTimeMillis() - session.getStartTime();
+
+        // Send completion event
+        session.getEmitter().send(SseEmitter.event()
+                .name("complete")
+                .data(Map.of(
+                        "message", "Scraping completed",
+                        "totalTime", totalProcessingTime,
+                        "totalProcessed", session.getCompletedTasks().get(),
+                        // Baseline for the next delta scrape of the same keywords
+                        "since", System.currentTimeMillis()
+                )));
+
+        session.getEmitter().complete();
+    }
+
+    private void sendError(SseEmitter emitter, String message) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("error")
+                    .data(message));
         } catch (IOException e) {
-            log.error("Error sending SSE events", e);
+            log.error("Error sending error message", e);
             emitter.completeWithError(e);
-        } finally {
-            isScrapingActive.set(false);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How often each keyword search is requested, with older requests weighing less after
+ * every {@link #decay()}.
+ */
+@Component
+public class KeywordPopularity {
+    // Scores this low are forgotten on decay
+    private static final double MIN_SCORE = 0.05;
+
+    private final ScraperProperties.Prewarm config;
+    // Keyed by normalized keywords, guarded by this
+    private final Map<String, Double> scores = new HashMap<>();
+
+    public KeywordPopularity(ScraperProperties properties) {
+        this.config = properties.getPrewarm();
+    }
+
+    public synchronized void record(String keywords) {
+        String key = ScrapeResultCache.normalizeKeywords(keywords);
+        if (key.isEmpty()) {
+            return;
+        }
+        scores.merge(key, 1.0, Double::sum);
+
+        // Make room by dropping the least requested keyword
+        if (scores.size() > config.getMaxTrackedKeywords()) {
+            scores.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(key))
+                    .min(Map.Entry.comparingByValue())
+                    .ifPresent(entry -> scores.remove(entry.getKey()));
+        }
+    }
+
+    /**
+     * The most requested keywords, most requested first.
+     */
+    public synchronized List<String> top(int limit) {
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public synchronized void decay() {
+        scores.replaceAll((keywords, score) -> score * config.getDecay());
+        scores.values().removeIf(score -> score < MIN_SCORE);
+    }
+
+    public synchronized Map<String, Double> snapshot() {
+        return new HashMap<>(scores);
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Recognizes the same job posted on different sites, even when the title or company is
+ * written a little differently. Title and company are cut into character trigrams of
+ * their analyzed terms and summarized by a MinHash signature, whose share of equal values
+ * estimates how much the two sets of trigrams overlap. Signatures are split into bands
+ * and only postings sharing a band are compared, so adding a posting costs about the
+ * same however many are indexed.
+ *
+ * The first posting of a job stays the one that is kept; copies from other sites only
+ * add their URL to its sources.
+ */
+public class NearDuplicateIndex {
+    private static final int SHINGLE_LENGTH = 3;
+    // Legal forms and filler that tell nothing about the company
+    private static final Set<String> COMPANY_NOISE = Set.of(
+            "sa", "cv", "sapi", "rl", "srl", "sc", "sab", "inc", "llc", "ltd", "mexico", "empresa");
+
+    private final int bands;
+    private final int rows;
+    private final double threshold;
+    private final long[] seeds;
+    private final Map<Long, List<Entry>> buckets = new HashMap<>();
+    private int size = 0;
+
+    public NearDuplicateIndex(ScraperProperties.Dedupe config) {
+        this.bands = Math.max(1, config.getBands());
+        this.rows = Math.max(1, config.getRows());
+        this.threshold = config.getThreshold();
+        // Fixed seed, the same posting always gets the same signature
+        SplittableRandom random = new SplittableRandom(0x5EED);
+        this.seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Indexes the posting, unless it is a copy of one indexed before from another site.
+     * Then that earlier posting is returned with this one's URL added to its sources.
+     * Postings without a title or URL are never merged.
+     */
+    public synchronized JobPosting add(JobPosting posting) {
+        if (posting.url() == null || posting.title() == null) {
+            return null;
+        }
+        Set<Long> shingles = shingles(posting);
+        if (shingles.isEmpty()) {
+            return null;
+        }
+        long[] signature = signature(shingles);
+        long[] keys = bandKeys(signature);
+
+        Entry best = null;
+        double bestSimilarity = threshold;
+        for (long key : keys) {
+            for (Entry candidate : buckets.getOrDefault(key, List.of())) {
+                if (candidate.sites.contains(posting.site())) {
+                    continue;
+                }
+                double similarity = similarity(signature, candidate.signature);
+                if (similarity >= bestSimilarity) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+        if (best != null) {
+            best.sites.add(posting.site());
+            best.sources.add(posting.url());
+            return best.posting.withSources(best.sources);
+        }
+
+        Entry entry = new Entry(posting, signature);
+        for (long key : keys) {
+            buckets.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entry);
+        }
+        size++;
+        return null;
+    }
+
+    // Postings indexed, copies merged into them not counted
+    public synchronized int size() {
+        return size;
+    }
+
+    // Estimated Jaccard similarity of the two postings' trigrams
+    private static double similarity(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    private long[] signature(Set<Long> shingles) {
+        long[] signature = new long[seeds.length];
+        for (int i = 0; i < seeds.length; i++) {
+            long min = Long.MAX_VALUE;
+            for (long shingle : shingles) {
+                min = Math.min(min, mix(shingle ^ seeds[i]));
+            }
+            signature[i] = min;
+        }
+        return signature;
+    }
+
+    private long[] bandKeys(long[] signature) {
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = 0; row < rows; row++) {
+                key = mix(key * 31 + signature[band * rows + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    // Title and company trigrams kept apart, so a company named like a title does not match it
+    static Set<Long> shingles(JobPosting posting) {
+        Set<Long> shingles = new HashSet<>();
+        addShingles(shingles, 't', SpanishAnalyzer.terms(posting.title()));
+        addShingles(shingles, 'c', SpanishAnalyzer.terms(posting.company()).stream()
+                .filter(term -> term.length() > 1 && !COMPANY_NOISE.contains(term))
+                .toList());
+        return shingles;
+    }
+
+    private static void addShingles(Set<Long> shingles, char field, List<String> terms) {
+        String text = String.join(" ", terms);
+        if (text.isEmpty()) {
+            return;
+        }
+        if (text.length() <= SHINGLE_LENGTH) {
+            shingles.add(DeltaTracker.fingerprint(field + text));
+            return;
+        }
+        for (int i = 0; i + SHINGLE_LENGTH <= text.length(); i++) {
+            shingles.add(DeltaTracker.fingerprint(field + text.substring(i, i + SHINGLE_LENGTH)));
+        }
+    }
+
+    // SplitMix64 finalizer, spreads similar inputs over the whole range
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static class Entry {
+        private final JobPosting posting;
+        private final long[] signature;
+        private final Set<String> sites = new HashSet<>();
+        private final List<String> sources = new ArrayList<>();
+
+        Entry(JobPosting posting, long[] signature) {
+            this.posting = posting;
+            this.signature = signature;
+            sites.add(posting.site());
+            sources.add(posting.url());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.jobscraperapi.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out navigations to the same domain. Callers get a future that completes when
+ * their turn comes, so the waiting happens on a timer instead of a scraping worker.
+ */
+@Component
+@Slf4j
+public class PolitenessScheduler {
+    private final ScraperProperties.Politeness config;
+    private final ScheduledExecutorService timer;
+    // Earliest System.nanoTime() at which the next navigation to each domain may start
+    private final Map<String, Long> nextSlots = new ConcurrentHashMap<>();
+
+    public PolitenessScheduler(ScraperProperties properties) {
+        this.config = properties.getPoliteness();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "politeness-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Void> slotFor(String url) {
+        long delayNanos = reserve(domainOf(url));
+        if (delayNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> slot = new CompletableFuture<>();
+        timer.schedule(() -> slot.complete(null), delayNanos, TimeUnit.NANOSECONDS);
+        return slot;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private long reserve(String domain) {
+        long now = System.nanoTime();
+        long gap = config.getMinInterval().toNanos() + randomJitter();
+        long slot = nextSlots.compute(domain, (key, next) -> {
+            long start = next == null || next - now < 0 ? now : next;
+            return start + gap;
+        }) - gap;
+        return slot - now;
+    }
+
+    private long randomJitter() {
+        long jitter = config.getJitter().toNanos();
+        return jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter) : 0;
+    }
+
+    private static String domainOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
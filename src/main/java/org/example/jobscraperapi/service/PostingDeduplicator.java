@@ -0,0 +1,78 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.SiteResult;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps one scrape from sending a posting twice, as results arrive. A posting whose URL
+ * was already sent is dropped, and so is the same job found on another site, which is
+ * merged into the posting sent first instead.
+ */
+public class PostingDeduplicator {
+    private final Set<String> seenUrls = new HashSet<>();
+    // Null when near-duplicates are not merged
+    private final NearDuplicateIndex nearDuplicates;
+
+    public PostingDeduplicator(ScraperProperties.Dedupe config) {
+        this.nearDuplicates = config.isEnabled() ? new NearDuplicateIndex(config) : null;
+    }
+
+    /**
+     * The result without postings already sent, which are counted as duplicates, along
+     * with the earlier postings that gained a source from it.
+     */
+    public synchronized Outcome apply(SiteResult result) {
+        List<JobPosting> unique = new ArrayList<>(result.postings().size());
+        Map<String, JobPosting> merged = new LinkedHashMap<>();
+        for (JobPosting posting : result.postings()) {
+            if (posting.url() != null && !seenUrls.add(posting.url())) {
+                continue;
+            }
+            JobPosting original = nearDuplicates == null ? null : nearDuplicates.add(posting);
+            if (original != null) {
+                merged.put(original.url(), original);
+            } else {
+                unique.add(posting);
+            }
+        }
+        return new Outcome(result.withPostings(unique, result.postings().size() - unique.size()),
+                List.copyOf(merged.values()));
+    }
+
+    /**
+     * Deduplicates a whole list of results in order, the postings kept carrying the
+     * sources of their copies.
+     */
+    public static List<SiteResult> merge(List<SiteResult> results, ScraperProperties.Dedupe config) {
+        PostingDeduplicator deduplicator = new PostingDeduplicator(config);
+        List<SiteResult> unique = new ArrayList<>(results.size());
+        Map<String, JobPosting> merged = new LinkedHashMap<>();
+        for (SiteResult result : results) {
+            Outcome outcome = deduplicator.apply(result);
+            unique.add(outcome.result());
+            outcome.merged().forEach(posting -> merged.put(posting.url(), posting));
+        }
+        if (merged.isEmpty()) {
+            return unique;
+        }
+        return unique.stream()
+                .map(result -> result.withPostings(result.postings().stream()
+                        .map(posting -> posting.url() == null ? posting : merged.getOrDefault(posting.url(), posting))
+                        .toList(), result.duplicates()))
+                .toList();
+    }
+
+    /**
+     * @param merged postings sent earlier, now with the URLs of their copies in sources
+     */
+    public record Outcome(SiteResult result, List<JobPosting> merged) {
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.jobscraperapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.model.PostingPage;
+import org.example.jobscraperapi.model.StoredPosting;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes stored postings out for bulk consumers, one line per posting, as they are read
+ * from the store a page at a time. Each page is flushed before the next is read, so the
+ * memory used is that of one page however many postings there are. Every line carries
+ * the posting's ID, which is the cursor to resume an interrupted export from.
+ */
+@Component
+@Slf4j
+public class PostingExporter {
+    private static final String[] CSV_COLUMNS = {"id", "title", "company", "url", "site", "first_seen", "last_seen"};
+
+    private final PostingStore postingStore;
+    private final ObjectMapper objectMapper;
+
+    public PostingExporter(PostingStore postingStore, ObjectMapper objectMapper) {
+        this.postingStore = postingStore;
+        this.objectMapper = objectMapper;
+    }
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.strip().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown export format: " + format + ", use ndjson or csv");
+            }
+        }
+    }
+
+    /**
+     * The postings after the cursor, optionally of one site only, oldest first. An invalid
+     * cursor throws IllegalArgumentException here, before anything is written.
+     */
+    public StreamingResponseBody export(Format format, String cursor, String site, boolean gzip) {
+        PostingStore.parseCursor(cursor);
+        return output -> {
+            long start = System.currentTimeMillis();
+            // Sync flush, so every page goes out compressed as soon as it is written
+            OutputStream target = gzip ? new GZIPOutputStream(output, 8192, true) : output;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+            long exported = write(writer, format, cursor, site);
+            writer.flush();
+            if (target instanceof GZIPOutputStream compressed) {
+                compressed.finish();
+            }
+            log.info("Exported {} postings as {}{} in {} ms", exported, format.extension(),
+                    gzip ? " (gzip)" : "", System.currentTimeMillis() - start);
+        };
+    }
+
+    private long write(Writer writer, Format format, String cursor, String site) throws IOException {
+        if (format == Format.CSV) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write("\r\n");
+        }
+        long exported = 0;
+        String next = cursor;
+        do {
+            PostingPage page = postingStore.page(next, PostingStore.MAX_PAGE_SIZE, site);
+            for (StoredPosting posting : page.postings()) {
+                if (format == Format.CSV) {
+                    writeCsv(writer, posting);
+                } else {
+                    writeJson(writer, posting);
+                }
+            }
+            // Pushes the page to the client, chunked since the length is never known up front
+            writer.flush();
+            exported += page.postings().size();
+            next = page.nextCursor();
+        } while (next != null);
+        return exported;
+    }
+
+    private void writeJson(Writer writer, StoredPosting posting) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        // The writer is shared by every line and closed by the caller
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartObject();
+        json.writeNumberField("id", posting.id());
+        writeStringField(json, "title", posting.title());
+        writeStringField(json, "company", posting.company());
+        writeStringField(json, "url", posting.url());
+        writeStringField(json, "site", posting.site());
+        json.writeStringField("firstSeen", posting.firstSeen().toString());
+        json.writeStringField("lastSeen", posting.lastSeen().toString());
+        json.writeEndObject();
+        json.close();
+        writer.write('\n');
+    }
+
+    // Missing fields are left out, like in the rest of the API
+    private static void writeStringField(JsonGenerator json, String name, String value) throws IOException {
+        if (value != null) {
+            json.writeStringField(name, value);
+        }
+    }
+
+    private static void writeCsv(Writer writer, StoredPosting posting) throws IOException {
+        writer.write(Long.toString(posting.id()));
+        for (String value : new String[]{posting.title(), posting.company(), posting.url(), posting.site(),
+                posting.firstSeen().toString(), posting.lastSeen().toString()}) {
+            writer.write(',');
+            writer.write(csvValue(value));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quoted when it holds a separator, quote or line break, quotes doubled
+    static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
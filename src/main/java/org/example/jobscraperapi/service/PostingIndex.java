@@ -0,0 +1,299 @@
+package org.example.jobscraperapi.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.PostingPage;
+import org.example.jobscraperapi.model.SearchHit;
+import org.example.jobscraperapi.model.StoredPosting;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the titles and companies of every stored posting,
+ * ranked with BM25. It is filled from the posting store on startup and kept up to date
+ * as postings are saved, so searches never scrape anything.
+ *
+ * Postings get dense document numbers. A posting whose title or company changes is
+ * indexed again under a new number and the old one is marked deleted; the index is
+ * rebuilt once deleted documents make up a quarter of it.
+ */
+@Component
+@Slf4j
+public class PostingIndex {
+    public static final int MAX_RESULTS = 100;
+
+    // BM25 term frequency saturation and length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // A match in the title weighs more than one in the company name
+    private static final double TITLE_BOOST = 2.0;
+    private static final int MIN_DELETED_FOR_REBUILD = 1000;
+
+    private final PostingStore postingStore;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Field title = new Field(TITLE_BOOST);
+    private final Field company = new Field(1.0);
+    // Document number -> posting, and normalized URL -> live document number
+    private final List<JobPosting> documents = new ArrayList<>();
+    private final Map<String, Integer> byUrl = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    public PostingIndex(PostingStore postingStore) {
+        this.postingStore = postingStore;
+    }
+
+    // Registered before loading, a posting saved meanwhile is indexed once either way.
+    // Not in the constructor, so the store never sees a half-built index
+    @PostConstruct
+    public void listen() {
+        postingStore.onSaved(this::index);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        try {
+            String cursor = null;
+            do {
+                PostingPage page = postingStore.page(cursor, PostingStore.MAX_PAGE_SIZE, null);
+                index(page.postings().stream().map(StoredPosting::posting).toList());
+                cursor = page.nextCursor();
+            } while (cursor != null);
+            log.info("Indexed {} stored postings in {} ms", size(), System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            log.warn("Could not load stored postings into the search index", e);
+        }
+    }
+
+    /**
+     * Adds new postings and re-indexes the ones whose title or company changed.
+     */
+    public void index(List<JobPosting> postings) {
+        lock.writeLock().lock();
+        try {
+            for (JobPosting posting : postings) {
+                if (posting.url() == null || posting.url().isBlank()) {
+                    continue;
+                }
+                String url = PostingStore.normalizeUrl(posting.url());
+                Integer current = byUrl.get(url);
+                if (current != null) {
+                    JobPosting indexed = documents.get(current);
+                    if (Objects.equals(indexed.title(), posting.title())
+                            && Objects.equals(indexed.company(), posting.company())) {
+                        continue;
+                    }
+                    delete(current);
+                }
+                byUrl.put(url, add(posting));
+            }
+            if (deleted.cardinality() >= Math.max(MIN_DELETED_FOR_REBUILD, documents.size() / 4)) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches of the query, optionally of one site only. Every query term is
+     * optional, postings matching more of them simply rank higher.
+     */
+    public Results search(String query, String site, int limit) {
+        List<String> terms = SpanishAnalyzer.terms(query).stream().distinct().toList();
+        int size = Math.max(1, Math.min(limit, MAX_RESULTS));
+
+        lock.readLock().lock();
+        try {
+            int live = size();
+            if (terms.isEmpty() || live == 0) {
+                return new Results(0, List.of());
+            }
+
+            float[] scores = new float[documents.size()];
+            BitSet matched = new BitSet(documents.size());
+            for (String term : terms) {
+                title.score(term, live, scores, matched);
+                company.score(term, live, scores, matched);
+            }
+
+            // Smallest of the best hits on top, so it is the one pushed out
+            PriorityQueue<Integer> best = new PriorityQueue<>(size + 1,
+                    (a, b) -> scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(b, a));
+            int total = 0;
+            for (int doc = matched.nextSetBit(0); doc >= 0; doc = matched.nextSetBit(doc + 1)) {
+                if (deleted.get(doc) || (site != null && !site.equals(documents.get(doc).site()))) {
+                    continue;
+                }
+                total++;
+                best.add(doc);
+                if (best.size() > size) {
+                    best.poll();
+                }
+            }
+
+            SearchHit[] hits = new SearchHit[best.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                int doc = best.poll();
+                hits[i] = SearchHit.of(documents.get(doc), scores[doc]);
+            }
+            return new Results(total, Arrays.asList(hits));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Live postings in the index
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size() - deleted.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("postings", documents.size() - deleted.cardinality());
+            stats.put("deleted", deleted.cardinality());
+            stats.put("titleTerms", title.postings.size());
+            stats.put("companyTerms", company.postings.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int add(JobPosting posting) {
+        int doc = documents.size();
+        documents.add(posting);
+        title.add(doc, SpanishAnalyzer.terms(posting.title()));
+        company.add(doc, SpanishAnalyzer.terms(posting.company()));
+        return doc;
+    }
+
+    private void delete(int doc) {
+        deleted.set(doc);
+        title.delete(doc);
+        company.delete(doc);
+    }
+
+    private void rebuild() {
+        List<JobPosting> live = new ArrayList<>(documents.size() - deleted.cardinality());
+        for (int doc = 0; doc < documents.size(); doc++) {
+            if (!deleted.get(doc)) {
+                live.add(documents.get(doc));
+            }
+        }
+        documents.clear();
+        byUrl.clear();
+        deleted.clear();
+        title.clear();
+        company.clear();
+        for (JobPosting posting : live) {
+            byUrl.put(PostingStore.normalizeUrl(posting.url()), add(posting));
+        }
+        log.info("Search index rebuilt with {} postings", live.size());
+    }
+
+    public record Results(int total, List<SearchHit> hits) {
+    }
+
+    /**
+     * Postings lists of one field. Documents only ever get appended, so every list is
+     * sorted by document number without any effort.
+     */
+    private static class Field {
+        private final double boost;
+        private final Map<String, Postings> postings = new HashMap<>();
+        // Terms per document, the field's length in BM25
+        private int[] lengths = new int[1024];
+        private long totalLength = 0;
+        private int liveDocuments = 0;
+
+        Field(double boost) {
+            this.boost = boost;
+        }
+
+        void add(int doc, List<String> terms) {
+            if (doc >= lengths.length) {
+                lengths = Arrays.copyOf(lengths, Math.max(doc + 1, lengths.length * 2));
+            }
+            lengths[doc] = terms.size();
+            totalLength += terms.size();
+            liveDocuments++;
+
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : terms) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new Postings()).add(doc, frequency));
+        }
+
+        // Postings stay in the lists, the index skips deleted documents when ranking
+        void delete(int doc) {
+            totalLength -= lengths[doc];
+            liveDocuments--;
+        }
+
+        void clear() {
+            postings.clear();
+            totalLength = 0;
+            liveDocuments = 0;
+        }
+
+        void score(String term, int documentCount, float[] scores, BitSet matched) {
+            Postings list = postings.get(term);
+            if (list == null || liveDocuments == 0) {
+                return;
+            }
+            double idf = Math.log(1 + (documentCount - list.size + 0.5) / (list.size + 0.5));
+            double averageLength = Math.max(1.0, (double) totalLength / liveDocuments);
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                int frequency = list.frequencies[i];
+                double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                scores[doc] += (float) (boost * idf * frequency * (K1 + 1) / (frequency + norm));
+                matched.set(doc);
+            }
+        }
+    }
+
+    /**
+     * Documents containing a term and how often, in two parallel primitive arrays.
+     */
+    private static class Postings {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size = 0;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.jobscraperapi.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scrapes the most requested keywords in the background so their cached results are
+ * fresh when clients ask for them. Each run refreshes the pages that would expire
+ * before the next one, up to a page budget, and is skipped while client scrapes are
+ * queued. Pages run as background tasks of the {@link ScrapeDispatcher}, under the same
+ * global and per-site limits as client scrapes.
+ */
+@Component
+@Slf4j
+public class PrewarmCrawler {
+    private final ScraperProperties.Prewarm config;
+    private final KeywordPopularity popularity;
+    private final SiteRegistry siteRegistry;
+    private final ScrapeResultCache resultCache;
+    private final ScrapeDispatcher dispatcher;
+    private final PolitenessScheduler politenessScheduler;
+    private final JobScraperService scraperService;
+    // Pages submitted and not finished yet, a slow page is not submitted twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder skippedRuns = new LongAdder();
+    private final LongAdder pagesScraped = new LongAdder();
+    private final LongAdder pagesFailed = new LongAdder();
+
+    public PrewarmCrawler(
+            ScraperProperties properties,
+            KeywordPopularity popularity,
+            SiteRegistry siteRegistry,
+            ScrapeResultCache resultCache,
+            ScrapeDispatcher dispatcher,
+            PolitenessScheduler politenessScheduler,
+            JobScraperService scraperService) {
+        this.config = properties.getPrewarm();
+        this.popularity = popularity;
+        this.siteRegistry = siteRegistry;
+        this.resultCache = resultCache;
+        this.dispatcher = dispatcher;
+        this.politenessScheduler = politenessScheduler;
+        this.scraperService = scraperService;
+    }
+
+    @Scheduled(
+            initialDelayString = "${scraper.prewarm.interval:PT5M}",
+            fixedDelayString = "${scraper.prewarm.interval:PT5M}")
+    public void prewarm() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        List<String> keywords = popularity.top(config.getTopKeywords());
+        popularity.decay();
+
+        // Client scrapes come first, the next run catches up
+        if (dispatcher.queuedClientTasks() > 0) {
+            skippedRuns.increment();
+            log.info("Prewarm skipped, {} client tasks queued", dispatcher.queuedClientTasks());
+            return;
+        }
+        runs.increment();
+
+        int submitted = 0;
+        for (String keyword : keywords) {
+            for (ScrapeTarget target : ScrapeTarget.plan(siteRegistry.all(), keyword)) {
+                if (submitted >= config.getMaxPagesPerRun()) {
+                    log.info("Prewarm page budget of {} used up", config.getMaxPagesPerRun());
+                    return;
+                }
+                if (resultCache.freshFor(keyword, target.siteName(), target.page(), config.getInterval())) {
+                    continue;
+                }
+
+                String key = ScrapeResultCache.key(keyword, target.siteName(), target.page());
+                if (!inFlight.add(key)) {
+                    continue;
+                }
+                submitted++;
+
+                // Politeness slots spread the pages of one site over time
+                Callable<SiteResult> task = scraperService.scrapeAndCache(keyword, target);
+                politenessScheduler.slotFor(target.url()).thenRun(() -> submit(key, target, task));
+            }
+        }
+        if (submitted > 0) {
+            log.info("Prewarm submitted {} pages for {}", submitted, keywords);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "runs", runs.sum(),
+                "skippedRuns", skippedRuns.sum(),
+                "pagesScraped", pagesScraped.sum(),
+                "pagesFailed", pagesFailed.sum(),
+                "inFlight", inFlight.size(),
+                "popularity", popularity.snapshot()
+        );
+    }
+
+    private void submit(String key, ScrapeTarget target, Callable<SiteResult> task) {
+        try {
+            dispatcher.background(target.siteName(), target.site().maxConcurrency()).execute(() -> {
+                try {
+                    SiteResult result = task.call();
+                    (result.isSuccess() ? pagesScraped : pagesFailed).increment();
+                } catch (Exception e) {
+                    pagesFailed.increment();
+                    log.warn("Prewarm scrape of {} failed", key, e);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key);
+            log.warn("Could not schedule prewarm scrape of {}", key, e);
+        }
+    }
+}
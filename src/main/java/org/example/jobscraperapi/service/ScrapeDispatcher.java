@@ -0,0 +1,280 @@
+package org.example.jobscraperapi.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded task queue shared by every scraping session. Tasks are taken round-robin
+ * across sessions, so one client with many sites cannot starve the others, and each
+ * one runs on its own virtual thread. A semaphore holds the number of running tasks to
+ * the global concurrency limit. A task whose site already runs as many tasks as its
+ * {@link SiteLimiter} allows, or is backing off, is skipped until that changes.
+ *
+ * Background tasks, such as prewarm scrapes, go through the same limits under their own
+ * session at a lower priority: one only starts when no client task can, and they hold at
+ * most half the permits, so clients arriving meanwhile still find room.
+ */
+@Component
+@Slf4j
+public class ScrapeDispatcher {
+    public static final String BACKGROUND_SESSION = "background";
+
+    private final ScraperProperties.Dispatcher config;
+    private final SiteLimiter siteLimiter;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition runnable = lock.newCondition();
+    // Insertion order is the round-robin order, a served session moves to the back
+    private final LinkedHashMap<String, ArrayDeque<QueuedTask>> queues = new LinkedHashMap<>();
+    // Running tasks per site, guarded by the lock
+    private final Map<String, Integer> runningPerSite = new HashMap<>();
+    // Running background tasks, guarded by the lock
+    private int runningBackground = 0;
+    // Admitted tasks that have not started yet, queued or still waiting to be queued
+    private final AtomicInteger pending = new AtomicInteger(0);
+    // The part of pending that is background tasks
+    private final AtomicInteger pendingBackground = new AtomicInteger(0);
+    // Permits of tasks allowed to run, taken before a task is picked and given back when it ends
+    private final Semaphore permits;
+    private final Set<Thread> runningThreads = ConcurrentHashMap.newKeySet();
+    private final Thread dispatcherThread;
+    private volatile boolean closed = false;
+
+    public ScrapeDispatcher(ScraperProperties properties, SiteLimiter siteLimiter) {
+        this.config = properties.getDispatcher();
+        this.siteLimiter = siteLimiter;
+        this.permits = new Semaphore(config.getConcurrency());
+        this.dispatcherThread = Thread.ofVirtual().name("scrape-dispatcher").start(this::dispatch);
+    }
+
+    /**
+     * Reserves room for a session's tasks. Returns false when the queue is full, in which
+     * case nothing was reserved.
+     */
+    public boolean tryAdmit(int tasks) {
+        int current;
+        do {
+            current = pending.get();
+            if (current + tasks > config.getQueueCapacity()) {
+                return false;
+            }
+        } while (!pending.compareAndSet(current, current + tasks));
+        return true;
+    }
+
+    /**
+     * Queues a task previously admitted through {@link #tryAdmit}.
+     */
+    public void enqueue(String sessionId, String site, int siteConcurrency, Runnable task) {
+        lock.lock();
+        try {
+            queues.computeIfAbsent(sessionId, key -> new ArrayDeque<>())
+                    .addLast(new QueuedTask(site, siteConcurrency, BACKGROUND_SESSION.equals(sessionId), task));
+            runnable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An executor queuing background tasks of a site, admitted one at a time. Throws
+     * RejectedExecutionException when the queue is full.
+     */
+    public Executor background(String site, int siteConcurrency) {
+        return task -> {
+            if (!tryAdmit(1)) {
+                throw new RejectedExecutionException("Scrape queue is full");
+            }
+            pendingBackground.incrementAndGet();
+            enqueue(BACKGROUND_SESSION, site, siteConcurrency, task);
+        };
+    }
+
+    /**
+     * Gives back room admitted for tasks that will never be queued.
+     */
+    public void release(int tasks) {
+        pending.addAndGet(-tasks);
+    }
+
+    /**
+     * Drops the session's queued tasks and returns how many were dropped.
+     */
+    public int cancel(String sessionId) {
+        lock.lock();
+        try {
+            ArrayDeque<QueuedTask> dropped = queues.remove(sessionId);
+            int count = dropped == null ? 0 : dropped.size();
+            pending.addAndGet(-count);
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queuedTasks() {
+        return pending.get();
+    }
+
+    // Queued tasks of client sessions only
+    public int queuedClientTasks() {
+        return pending.get() - pendingBackground.get();
+    }
+
+    public int runningTasks() {
+        return runningThreads.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        dispatcherThread.interrupt();
+        runningThreads.forEach(Thread::interrupt);
+    }
+
+    private void dispatch() {
+        while (!closed) {
+            QueuedTask task;
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                task = takeNext();
+            } catch (InterruptedException e) {
+                permits.release();
+                return;
+            }
+
+            try {
+                Thread.ofVirtual().name("scrape-task").start(() -> run(task));
+            } catch (RuntimeException e) {
+                log.error("Could not start scraping task", e);
+                finished(task);
+            }
+        }
+    }
+
+    private void run(QueuedTask task) {
+        Thread current = Thread.currentThread();
+        runningThreads.add(current);
+        try {
+            task.task().run();
+        } catch (RuntimeException e) {
+            log.error("Scraping task failed", e);
+        } finally {
+            runningThreads.remove(current);
+            finished(task);
+        }
+    }
+
+    private QueuedTask takeNext() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                QueuedTask task = pollRunnable();
+                if (task != null) {
+                    runningPerSite.merge(task.site(), 1, Integer::sum);
+                    pending.decrementAndGet();
+                    if (task.background()) {
+                        runningBackground++;
+                        pendingBackground.decrementAndGet();
+                    }
+                    return task;
+                }
+                // Sites backing off wake the dispatcher up themselves when their pause ends
+                long backoff = shortestBackoff();
+                if (backoff > 0) {
+                    runnable.awaitNanos(backoff);
+                } else {
+                    runnable.await();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // First client task in round-robin order whose site still has room, else the first
+    // such background task while they hold less than half the permits
+    private QueuedTask pollRunnable() {
+        QueuedTask task = pollRunnable(false);
+        if (task == null && runningBackground < Math.max(1, config.getConcurrency() / 2)) {
+            task = pollRunnable(true);
+        }
+        return task;
+    }
+
+    private QueuedTask pollRunnable(boolean background) {
+        for (String sessionId : new ArrayList<>(queues.keySet())) {
+            if (BACKGROUND_SESSION.equals(sessionId) != background) {
+                continue;
+            }
+            ArrayDeque<QueuedTask> queue = queues.get(sessionId);
+            Iterator<QueuedTask> tasks = queue.iterator();
+            while (tasks.hasNext()) {
+                QueuedTask task = tasks.next();
+                int limit = siteLimiter.concurrency(task.site(), task.siteConcurrency());
+                if (runningPerSite.getOrDefault(task.site(), 0) < limit
+                        && siteLimiter.backoffNanos(task.site()) == 0) {
+                    tasks.remove();
+                    queues.remove(sessionId);
+                    if (!queue.isEmpty()) {
+                        queues.put(sessionId, queue);
+                    }
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Shortest pause among the sites of queued tasks, 0 when none is backing off
+    private long shortestBackoff() {
+        long shortest = 0;
+        for (ArrayDeque<QueuedTask> queue : queues.values()) {
+            for (QueuedTask task : queue) {
+                long backoff = siteLimiter.backoffNanos(task.site());
+                if (backoff > 0 && (shortest == 0 || backoff < shortest)) {
+                    shortest = backoff;
+                }
+            }
+        }
+        return shortest;
+    }
+
+    private void finished(QueuedTask task) {
+        lock.lock();
+        try {
+            runningPerSite.merge(task.site(), -1, Integer::sum);
+            if (task.background()) {
+                runningBackground--;
+            }
+            // A slot of this site is free again, tasks skipped for it may run now
+            runnable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        permits.release();
+    }
+
+    private record QueuedTask(String site, int siteConcurrency, boolean background, Runnable task) {
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.jobscraperapi.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.SiteResult;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Successful site results per result page and normalized keywords, with a TTL,
+ * stale-while-revalidate and LRU eviction bounded by entry count and estimated size.
+ */
+@Component
+@Slf4j
+public class ScrapeResultCache {
+    private final ScraperProperties.Cache config;
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private long totalBytes = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ScrapeResultCache(ScraperProperties properties) {
+        this.config = properties.getCache();
+    }
+
+    /**
+     * Returns the cached result flagged as cached and whether it is stale, or null on a
+     * miss. A stale result should be served and refreshed through {@link #revalidate}.
+     */
+    public SiteResult lookup(String keywords, String site, int page) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+
+        String key = key(keywords, site, page);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.age() > config.getTtl().plus(config.getStaleWhileRevalidate()).toMillis()) {
+                remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        boolean stale = entry.age() > config.getTtl().toMillis();
+        (stale ? staleHits : hits).increment();
+
+        return entry.result().asCached(stale);
+    }
+
+    /**
+     * Whether the entry will still be within its TTL after {@code margin}. Unlike
+     * {@link #lookup} it does not count as a hit or a miss.
+     */
+    public boolean freshFor(String keywords, String site, int page, Duration margin) {
+        if (!config.isEnabled()) {
+            return false;
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key(keywords, site, page));
+        }
+        return entry != null && entry.age() + margin.toMillis() <= config.getTtl().toMillis();
+    }
+
+    public void put(String keywords, String site, int page, SiteResult result) {
+        if (!config.isEnabled() || !result.isSuccess()) {
+            return;
+        }
+
+        String key = key(keywords, site, page);
+        Entry entry = new Entry(result, System.currentTimeMillis(), estimateBytes(result));
+        synchronized (this) {
+            remove(key);
+            entries.put(key, entry);
+            totalBytes += entry.bytes();
+            evictOverflow();
+        }
+    }
+
+    /**
+     * Refreshes a stale entry on the given executor, normally the scrape dispatcher's
+     * background queue, at most one refresh per key at a time.
+     */
+    public void revalidate(String keywords, String site, int page, Callable<SiteResult> loader, Executor executor) {
+        String key = key(keywords, site, page);
+        if (!refreshing.add(key)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    put(keywords, site, page, loader.call());
+                } catch (Exception e) {
+                    log.warn("Could not refresh cached result for {}", key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key);
+            log.warn("Could not schedule refresh for {}", key, e);
+        }
+    }
+
+    public synchronized Map<String, Object> stats() {
+        return Map.of(
+                "hits", hits.sum(),
+                "staleHits", staleHits.sum(),
+                "misses", misses.sum(),
+                "evictions", evictions.sum(),
+                "entries", entries.size(),
+                "bytes", totalBytes
+        );
+    }
+
+    static String key(String keywords, String site, int page) {
+        return site + ":" + page + ":" + normalizeKeywords(keywords);
+    }
+
+    static String normalizeKeywords(String keywords) {
+        return Normalizer.normalize(keywords == null ? "" : keywords, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (eldest.hasNext() && (entries.size() > config.getMaxEntries() || totalBytes > config.getMaxBytes())) {
+            totalBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.bytes();
+        }
+    }
+
+    // Rough heap footprint: two bytes per char plus a fixed overhead per object
+    private static long estimateBytes(SiteResult result) {
+        long bytes = 96 + estimateBytes(result.site()) + estimateBytes(result.url())
+                + estimateBytes(result.status()) + estimateBytes(result.message()) + estimateBytes(result.mode());
+        for (JobPosting posting : result.postings()) {
+            bytes += 8 + 32 + estimateBytes(posting.title()) + estimateBytes(posting.company())
+                    + estimateBytes(posting.url()) + estimateBytes(posting.site());
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(String text) {
+        return text == null ? 0 : 40 + 2L * text.length();
+    }
+
+    private record Entry(SiteResult result, long storedAt, long bytes) {
+        long age() {
+            return System.currentTimeMillis() - storedAt;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.jobscraperapi.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.example.jobscraperapi.model.ScrapingRequest;
+import org.example.jobscraperapi.scraper.ScrapeDeadline;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Progress of one client's scrape, tied to the emitter ID handed out by /connect.
+ */
+@Getter
+public class ScrapeSession {
+    private final String id;
+    private final SseEmitter emitter;
+    private final String keywords;
+    private final List<ScrapeTarget> targets;
+    private final int totalTasks;
+    // One "job" event per posting instead of one "job_data" event per result page
+    private final boolean streaming;
+    // Only new or changed postings, pages scraped one after the other per site
+    private final boolean delta;
+    private final Long deltaSince;
+    // Shared by every page of the session, cancelled when the session ends early
+    private final ScrapeDeadline deadline;
+    private final long startTime = System.currentTimeMillis();
+    private final AtomicInteger completedTasks = new AtomicInteger(0);
+    // Admitted delta pages not handed to the scheduler yet, guarded by the lock
+    private final AtomicInteger deferredPages = new AtomicInteger(0);
+    // Postings already sent, the same posting can show up on several pages and sites
+    private final PostingDeduplicator deduplicator;
+    // Serializes the deliveries of the session's results. A lock rather than a monitor,
+    // so a virtual thread blocked on an SSE send does not pin its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean active = new AtomicBoolean(true);
+
+    public ScrapeSession(String id, SseEmitter emitter, ScrapingRequest request, List<ScrapeTarget> targets,
+                         ScrapeDeadline deadline, PostingDeduplicator deduplicator) {
+        this.id = id;
+        this.emitter = emitter;
+        this.keywords = request.getKeywords();
+        this.targets = List.copyOf(targets);
+        this.totalTasks = targets.size();
+        this.streaming = request.isStream();
+        this.delta = request.isDelta();
+        this.deltaSince = request.getSince();
+        this.deadline = deadline;
+        this.deduplicator = deduplicator;
+    }
+
+    public boolean isActive() {
+        return active.get();
+    }
+
+    /**
+     * Marks the session as finished, returns false if it already was.
+     */
+    public boolean finish() {
+        return active.compareAndSet(true, false);
+    }
+}
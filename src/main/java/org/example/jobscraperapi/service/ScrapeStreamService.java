@@ -0,0 +1,267 @@
+package org.example.jobscraperapi.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.ScrapingRequest;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.scraper.ScrapeDeadline;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.example.jobscraperapi.scraper.SiteScraper;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keyword scrapes as a single stream of server-sent events, without the connect/scrape
+ * handshake. Nothing starts before the client subscribes, and at most a site's
+ * maxConcurrency pages are in flight at once. Scraping is paced by how fast the client
+ * reads: every stage prefetches a single result, so a site gets only a few pages ahead
+ * of the events read so far. Cancelling the subscription drops the pages that did not
+ * start yet and cancels the running ones.
+ *
+ * The events are the ones of {@link JobScraperService}: "job_data" (or "job" and
+ * "page_done" when streaming), "progress", then "complete" or "error".
+ */
+@Service
+@Slf4j
+public class ScrapeStreamService {
+    private final ScrapeResultCache resultCache;
+    private final ScrapeDispatcher dispatcher;
+    private final PolitenessScheduler politenessScheduler;
+    private final SiteRegistry siteRegistry;
+    private final DeltaTracker deltaTracker;
+    private final KeywordPopularity keywordPopularity;
+    private final JobScraperService scraperService;
+    private final ScraperProperties.Deadline deadlineConfig;
+    private final ScraperProperties.Dedupe dedupeConfig;
+    private final AtomicInteger activeStreams = new AtomicInteger(0);
+
+    public ScrapeStreamService(
+            ScrapeResultCache resultCache,
+            ScrapeDispatcher dispatcher,
+            PolitenessScheduler politenessScheduler,
+            SiteRegistry siteRegistry,
+            DeltaTracker deltaTracker,
+            KeywordPopularity keywordPopularity,
+            JobScraperService scraperService,
+            ScraperProperties properties) {
+        this.resultCache = resultCache;
+        this.dispatcher = dispatcher;
+        this.politenessScheduler = politenessScheduler;
+        this.siteRegistry = siteRegistry;
+        this.deltaTracker = deltaTracker;
+        this.keywordPopularity = keywordPopularity;
+        this.scraperService = scraperService;
+        this.deadlineConfig = properties.getDeadline();
+        this.dedupeConfig = properties.getDedupe();
+    }
+
+    public Flux<ServerSentEvent<Object>> scrape(ScrapingRequest request) {
+        // Nothing is admitted or scraped before the client subscribes
+        return Flux.defer(() -> {
+            List<ScrapeTarget> targets = ScrapeTarget.plan(siteRegistry.all(), request.getKeywords());
+            keywordPopularity.record(request.getKeywords());
+            if (!dispatcher.tryAdmit(targets.size())) {
+                return Flux.just(event("error", "Too many scrapes in progress, try again later"));
+            }
+
+            StreamedScrape stream = new StreamedScrape(request, targets,
+                    ScrapeDeadline.in(deadlineConfig.budgetFor(request.getBudgetSeconds())));
+            activeStreams.incrementAndGet();
+            return results(stream)
+                    .concatMap(result -> events(stream, result), 1)
+                    .concatWith(Mono.fromSupplier(() -> complete(stream)))
+                    .doFinally(signal -> {
+                        activeStreams.decrementAndGet();
+                        int dropped = stream.close();
+                        if (dropped > 0) {
+                            log.info("Stream {} ended ({}), {} pages dropped", stream.id, signal, dropped);
+                        }
+                    });
+        });
+    }
+
+    public int activeStreams() {
+        return activeStreams.get();
+    }
+
+    // Site results merged in completion order. Delta scrapes go through a site one page
+    // after the other and stop at the first page without anything new. A page is only
+    // started once the one before it was handed on, results are not queued up ahead.
+    private Flux<SiteResult> results(StreamedScrape stream) {
+        Map<SiteScraper, List<ScrapeTarget>> bySite = new LinkedHashMap<>();
+        for (ScrapeTarget target : stream.targets) {
+            bySite.computeIfAbsent(target.site(), site -> new ArrayList<>()).add(target);
+        }
+
+        return Flux.fromIterable(bySite.values()).flatMap(pages -> stream.delta
+                ? Flux.fromIterable(pages)
+                        .concatMap(target -> scrape(stream, target), 1)
+                        .takeUntil(result -> result.postings().isEmpty())
+                : Flux.fromIterable(pages)
+                        .flatMap(target -> scrape(stream, target), pages.get(0).site().maxConcurrency(), 1),
+                Math.max(1, bySite.size()), 1);
+    }
+
+    private Mono<SiteResult> scrape(StreamedScrape stream, ScrapeTarget target) {
+        return Mono.<SiteResult>create(sink -> {
+            String keywords = stream.keywords;
+            String site = target.siteName();
+            Callable<SiteResult> task = scraperService.scrapeAndCache(keywords, target, stream.deadline);
+
+            // Cached results are answered right away, stale ones get refreshed in the background,
+            // without the stream's deadline since they outlive it
+            SiteResult cached = resultCache.lookup(keywords, site, target.page());
+            if (cached != null) {
+                stream.answered();
+                if (cached.stale()) {
+                    scraperService.revalidate(keywords, target);
+                }
+                sink.success(cached);
+                return;
+            }
+
+            Runnable scrape = () -> {
+                SiteResult result;
+                try {
+                    result = stream.deadline.isOver()
+                            ? SiteResult.cancelled(site, target.url(), stream.deadline.reason()).withPage(target.page())
+                            : task.call();
+                } catch (Exception e) {
+                    log.error("Error processing scraping result", e);
+                    result = SiteResult.error(site, target.url(), String.valueOf(e.getMessage()))
+                            .withPage(target.page());
+                }
+                sink.success(result);
+            };
+            politenessScheduler.slotFor(target.url())
+                    .thenRun(() -> stream.enqueue(site, target.site().maxConcurrency(), scrape));
+        }).map(result -> stream.delta
+                ? result.withFreshPostings(deltaTracker.fresh(
+                        stream.keywords, result.site(), result.postings(), stream.since))
+                : result);
+    }
+
+    private Flux<ServerSentEvent<Object>> events(StreamedScrape stream, SiteResult result) {
+        PostingDeduplicator.Outcome deduplicated = stream.deduplicator.apply(result);
+        SiteResult unique = deduplicated.result();
+        List<ServerSentEvent<Object>> events = new ArrayList<>();
+        if (stream.streaming) {
+            for (JobPosting posting : unique.postings()) {
+                events.add(event("job", posting));
+            }
+            events.add(event("page_done", unique.withPostings(List.of(), unique.duplicates())));
+        } else {
+            events.add(event("job_data", unique));
+        }
+        // Postings sent earlier that turned out to be on this page's site too
+        for (JobPosting merged : deduplicated.merged()) {
+            events.add(event("job_merged", merged));
+        }
+
+        int completed = stream.completed.incrementAndGet();
+        if (stream.delta && result.postings().isEmpty()) {
+            // Nothing new on this page, the site's remaining pages count as done unscraped
+            completed = stream.completed.addAndGet(stream.laterPages(result));
+        }
+        events.add(event("progress", Map.of(
+                "completed", completed,
+                "total", stream.targets.size(),
+                "percentage", (completed * 100.0) / stream.targets.size()
+        )));
+        return Flux.fromIterable(events);
+    }
+
+    private static ServerSentEvent<Object> complete(StreamedScrape stream) {
+        return event("complete", Map.of(
+                "message", "Scraping completed",
+                "totalTime", System.currentTimeMillis() - stream.startTime,
+                "totalProcessed", stream.completed.get(),
+                // Baseline for the next delta scrape of the same keywords
+                "since", System.currentTimeMillis()
+        ));
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+
+    /**
+     * One subscribed scrape. Admitted pages are given back to the dispatcher as they are
+     * queued or answered from the cache, the rest when the stream closes. Those changes
+     * are guarded by the stream's monitor, so a page is never counted by both.
+     */
+    private class StreamedScrape {
+        private final String id = "stream-" + UUID.randomUUID();
+        private final String keywords;
+        private final boolean streaming;
+        private final boolean delta;
+        private final Long since;
+        private final List<ScrapeTarget> targets;
+        private final ScrapeDeadline deadline;
+        private final long startTime = System.currentTimeMillis();
+        private final AtomicInteger completed = new AtomicInteger(0);
+        // Admitted pages neither queued nor answered from the cache yet
+        private int unstarted;
+        private boolean active = true;
+        private final PostingDeduplicator deduplicator = new PostingDeduplicator(dedupeConfig);
+
+        StreamedScrape(ScrapingRequest request, List<ScrapeTarget> targets, ScrapeDeadline deadline) {
+            this.keywords = request.getKeywords();
+            this.streaming = request.isStream();
+            this.delta = request.isDelta();
+            this.since = request.getSince();
+            this.targets = List.copyOf(targets);
+            this.unstarted = targets.size();
+            this.deadline = deadline;
+        }
+
+        // Answered from the cache, the admitted room is not needed
+        synchronized void answered() {
+            if (active) {
+                unstarted--;
+                dispatcher.release(1);
+            }
+        }
+
+        // Handed to the dispatcher, which takes over the admitted room
+        synchronized void enqueue(String site, int siteConcurrency, Runnable task) {
+            if (active) {
+                unstarted--;
+                dispatcher.enqueue(id, site, siteConcurrency, task);
+            }
+        }
+
+        /**
+         * Drops queued pages, gives back the room of those never queued and cancels the
+         * running ones. Returns how many pages were dropped.
+         */
+        synchronized int close() {
+            if (!active) {
+                return 0;
+            }
+            active = false;
+            deadline.cancel("Stream closed");
+            dispatcher.release(unstarted);
+            int dropped = unstarted + dispatcher.cancel(id);
+            unstarted = 0;
+            return dropped;
+        }
+
+        int laterPages(SiteResult result) {
+            return (int) targets.stream()
+                    .filter(target -> target.siteName().equals(result.site()) && target.page() > result.page())
+                    .count();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.scraper.SiteScraper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One result page of one site to scrape for a keyword search.
+ */
+public record ScrapeTarget(SiteScraper site, int page, String url) {
+
+    // Every page of every site, page 1 of each site first, then page 2 of each and so on.
+    // Tasks are queued in this order, so every site gets its first results in early
+    public static List<ScrapeTarget> plan(Collection<SiteScraper> sites, String keywords) {
+        List<ScrapeTarget> targets = new ArrayList<>();
+        int depth = sites.stream().mapToInt(SiteScraper::pageDepth).max().orElse(0);
+        for (int page = 1; page <= depth; page++) {
+            for (SiteScraper site : sites) {
+                if (page <= site.pageDepth()) {
+                    targets.add(new ScrapeTarget(site, page, site.buildUrl(keywords, page)));
+                }
+            }
+        }
+        return targets;
+    }
+
+    public String siteName() {
+        return site.name();
+    }
+}
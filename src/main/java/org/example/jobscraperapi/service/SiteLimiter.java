@@ -0,0 +1,212 @@
+package org.example.jobscraperapi.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.scraper.ScrapeMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adapts how hard each site is scraped to how it answers. A blocked or timed out page
+ * cuts the site's concurrency (by half by default) and pauses it with an exponential,
+ * jittered backoff; every successful page grows it back by a fraction (AIMD). After
+ * too many refusals in a row the circuit opens: pages of the site are answered as
+ * unavailable without a request until a single probe page gets through again.
+ */
+@Component
+@Slf4j
+public class SiteLimiter {
+    private final ScraperProperties.Limiter config;
+    private final ScrapeMetrics metrics;
+    private final Map<String, SiteState> states = new ConcurrentHashMap<>();
+
+    public SiteLimiter(ScraperProperties properties, ScrapeMetrics metrics) {
+        this.config = properties.getLimiter();
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs the scrape of a page unless the site's circuit is open, in which case the page
+     * is answered as unavailable right away, and feeds the outcome back. max is the
+     * site's maxConcurrency, the most its concurrency grows back to.
+     */
+    public SiteResult guard(String site, int max, String url, Callable<SiteResult> scrape) throws Exception {
+        if (!tryAcquire(site)) {
+            SiteResult result = SiteResult.unavailable(site, url,
+                    "Site temporarily unavailable after refusing too many requests");
+            metrics.taskFinished(result);
+            return result;
+        }
+        SiteResult result = null;
+        try {
+            result = scrape.call();
+            return result;
+        } finally {
+            // A scrape that threw counts as inconclusive
+            record(site, max, result != null ? result : SiteResult.error(site, url, "Scrape failed"));
+        }
+    }
+
+    /**
+     * Tasks of the site allowed to run at the same time, between 1 and its maximum.
+     */
+    public int concurrency(String site, int max) {
+        return config.isEnabled() ? state(site).limit(max) : max;
+    }
+
+    /**
+     * Nanoseconds before the next page of the site may start, 0 when it may right away.
+     */
+    public long backoffNanos(String site) {
+        return config.isEnabled() ? state(site).backoffNanos(System.nanoTime()) : 0;
+    }
+
+    /**
+     * Whether a page of the site should be scraped now. False while the circuit is open
+     * and while its probe page is running.
+     */
+    public boolean tryAcquire(String site) {
+        return !config.isEnabled() || state(site).tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * Feeds a scraped page back. Every page let through {@link #tryAcquire} must be
+     * recorded, whatever its outcome.
+     */
+    public void record(String site, int max, SiteResult result) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        SiteState state = state(site);
+        // A refusal before the dispatcher asked for the concurrency cuts from the site's maximum
+        state.limit(max);
+        if (result.isSuccess()) {
+            state.succeeded();
+        } else if (isRefusal(result)) {
+            state.refused(System.nanoTime());
+        } else {
+            state.inconclusive();
+        }
+    }
+
+    public Map<String, Object> stats(String site, int max) {
+        return state(site).report(max, System.nanoTime());
+    }
+
+    // Blocked pages and timeouts mean the site is pushing back, other failures do not
+    private static boolean isRefusal(SiteResult result) {
+        return SiteResult.BLOCKED.equals(result.status()) || SiteResult.TIMED_OUT.equals(result.status());
+    }
+
+    private SiteState state(String site) {
+        return states.computeIfAbsent(site, SiteState::new);
+    }
+
+    private enum Circuit { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Limiter state of one site, guarded by its monitor. Nothing blocks while holding it.
+     */
+    private class SiteState {
+        private final String site;
+        private int max = Integer.MAX_VALUE;
+        private double limit = -1;
+        private int refusalsInRow = 0;
+        private long backoffUntil = 0;
+        private Circuit circuit = Circuit.CLOSED;
+        private long openUntil = 0;
+        private boolean probing = false;
+
+        SiteState(String site) {
+            this.site = site;
+        }
+
+        synchronized int limit(int max) {
+            this.max = max;
+            if (limit < 0 || limit > max) {
+                limit = max;
+            }
+            return Math.max(1, (int) limit);
+        }
+
+        // Open circuits answer right away, there is nothing to wait for
+        synchronized long backoffNanos(long now) {
+            return circuit == Circuit.OPEN ? 0 : Math.max(0, backoffUntil - now);
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            if (circuit == Circuit.OPEN && now - openUntil >= 0) {
+                circuit = Circuit.HALF_OPEN;
+                probing = false;
+            }
+            if (circuit == Circuit.OPEN || (circuit == Circuit.HALF_OPEN && probing)) {
+                return false;
+            }
+            if (circuit == Circuit.HALF_OPEN) {
+                probing = true;
+                log.info("Probing {} after its circuit was open", site);
+            }
+            return true;
+        }
+
+        synchronized void succeeded() {
+            refusalsInRow = 0;
+            backoffUntil = 0;
+            // Additive increase: one more task for every limit's worth of good pages
+            double current = limit < 0 ? max : limit;
+            limit = Math.min(max, current + 1 / Math.max(1, current));
+            if (circuit == Circuit.HALF_OPEN) {
+                circuit = Circuit.CLOSED;
+                probing = false;
+                log.info("Circuit of {} closed again", site);
+            }
+        }
+
+        synchronized void refused(long now) {
+            refusalsInRow++;
+            double current = limit < 0 ? max : limit;
+            limit = Math.max(1, current * config.getDecreaseFactor());
+
+            // Exponential backoff with equal jitter: half fixed, half random
+            long maxBackoff = config.getMaxBackoff().toNanos();
+            long backoff = config.getBaseBackoff().toNanos();
+            for (int i = 1; i < refusalsInRow && backoff < maxBackoff; i++) {
+                backoff *= 2;
+            }
+            backoff = Math.min(backoff, maxBackoff);
+            backoff = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            backoffUntil = now + backoff;
+
+            if (circuit == Circuit.HALF_OPEN || refusalsInRow >= config.getFailureThreshold()) {
+                circuit = Circuit.OPEN;
+                probing = false;
+                openUntil = now + config.getOpenDuration().toNanos();
+                log.warn("Circuit of {} open for {} after {} refused pages in a row",
+                        site, config.getOpenDuration(), refusalsInRow);
+            } else {
+                log.info("{} refused a page, concurrency down to {}, backing off {} ms",
+                        site, (int) limit, backoff / 1_000_000);
+            }
+        }
+
+        // Neither a success nor a refusal, a probe that ends like this gets retried
+        synchronized void inconclusive() {
+            probing = false;
+        }
+
+        synchronized Map<String, Object> report(int max, long now) {
+            return Map.of(
+                    "concurrency", limit(max),
+                    "refusalsInRow", refusalsInRow,
+                    "backoffMs", Math.max(0, backoffUntil - now) / 1_000_000,
+                    "circuit", circuit.name().toLowerCase(Locale.ROOT)
+            );
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.jobscraperapi.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns posting titles, company names and search queries into index terms: lower case,
+ * accents folded ("programación" and "programacion" are the same term), common Spanish
+ * and English stop words dropped and plurals reduced to their singular, so "ingenieros"
+ * finds "Ingeniero".
+ */
+final class SpanishAnalyzer {
+    private static final Locale SPANISH = Locale.forLanguageTag("es-MX");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "al", "con", "de", "del", "e", "el", "en", "la", "las", "lo", "los", "o", "para",
+            "por", "se", "sin", "su", "sus", "u", "un", "una", "unas", "unos", "y",
+            "and", "for", "of", "the", "to", "with");
+
+    private SpanishAnalyzer() {
+    }
+
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean partOfWord = i < folded.length() && isWordChar(folded.charAt(i));
+            if (partOfWord && start < 0) {
+                start = i;
+            } else if (!partOfWord && start >= 0) {
+                String word = folded.substring(start, i);
+                if (!STOP_WORDS.contains(word) && hasLetterOrDigit(word)) {
+                    terms.add(singular(word));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Lower case without diacritics, so ñ folds to n and ü to u as well
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(SPANISH), Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    private static boolean hasLetterOrDigit(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isLetterOrDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Keeps "c++" and "c#" in one piece
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#';
+    }
+
+    // Light plural stemming: "desarrolladores" -> "desarrollador", "ventas" -> "venta".
+    // Short words and words not ending like a Spanish plural are left alone
+    private static String singular(String word) {
+        int length = word.length();
+        if (length > 5 && word.endsWith("es") && "lrndzj".indexOf(word.charAt(length - 3)) >= 0) {
+            return word.substring(0, length - 2);
+        }
+        if (length > 4 && word.endsWith("s") && "aeiou".indexOf(word.charAt(length - 2)) >= 0) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS job_postings (
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    url_hash   CHAR(64)      NOT NULL,
+    url        VARCHAR(2048) NOT NULL,
+    title      VARCHAR(1000),
+    company    VARCHAR(1000),
+    site       VARCHAR(100)  NOT NULL,
+    first_seen TIMESTAMP     NOT NULL,
+    last_seen  TIMESTAMP     NOT NULL,
+    CONSTRAINT uk_job_postings_url_hash UNIQUE (url_hash)
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_postings_site ON job_postings (site, id);
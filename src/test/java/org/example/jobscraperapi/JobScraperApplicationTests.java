@@ -3,7 +3,11 @@ package org.example.jobscraperapi;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// No browsers are launched while the context loads, postings go to an in-memory database
+@SpringBootTest(properties = {
+        "scraper.browser-pool.min-size=0",
+        "spring.datasource.url=jdbc:h2:mem:jobs"
+})
 class JobScraperApplicationTests {
 
     @Test
@@ -0,0 +1,42 @@
+package org.example.jobscraperapi.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SiteResultTests {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new BlackbirdModule());
+
+    @Test
+    void writesPostingsAsDataAndSkipsDefaults() throws Exception {
+        SiteResult result = SiteResult.success("occ", "https://www.occ.com.mx/empleos/de-java",
+                        List.of(new JobPosting("Java developer", null, "https://www.occ.com.mx/empleo/1", "occ")))
+                .withPage(2);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(result));
+
+        assertThat(json.get("status").asText()).isEqualTo("success");
+        assertThat(json.get("page").asInt()).isEqualTo(2);
+        assertThat(json.has("cached")).isFalse();
+        assertThat(json.has("duplicates")).isFalse();
+        assertThat(json.has("postings")).isFalse();
+        assertThat(json.get("data")).hasSize(1);
+        assertThat(json.get("data").get(0).has("company")).isFalse();
+    }
+
+    @Test
+    void alwaysWritesData() throws Exception {
+        SiteResult result = SiteResult.blocked("occ", "https://www.occ.com.mx/empleos/de-java", "Blocked");
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(result.asCached(true)));
+
+        assertThat(json.get("data").isArray()).isTrue();
+        assertThat(json.get("cached").asBoolean()).isTrue();
+        assertThat(json.get("stale").asBoolean()).isTrue();
+    }
+}
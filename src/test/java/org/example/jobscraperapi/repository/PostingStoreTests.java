@@ -0,0 +1,71 @@
+package org.example.jobscraperapi.repository;
+
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.PostingPage;
+import org.example.jobscraperapi.model.StoredPosting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingStoreTests {
+    private EmbeddedDatabase database;
+    private PostingStore store;
+
+    @BeforeEach
+    void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        store = new PostingStore(new JdbcTemplate(database));
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    void deduplicatesOnNormalizedUrl() throws InterruptedException {
+        store.save(List.of(new JobPosting("Java dev", "ACME", "https://www.occ.com.mx/empleo/1/", "occ")));
+        StoredPosting first = store.page(null, 10, null).postings().get(0);
+
+        Thread.sleep(5);
+        store.save(List.of(
+                new JobPosting("Java developer", "ACME", "HTTPS://WWW.OCC.COM.MX/empleo/1?utm_source=x#top", "occ"),
+                new JobPosting("No link", "ACME", null, "occ")));
+
+        List<StoredPosting> stored = store.page(null, 10, null).postings();
+        assertThat(stored).hasSize(1);
+        assertThat(stored.get(0).title()).isEqualTo("Java developer");
+        assertThat(stored.get(0).firstSeen()).isEqualTo(first.firstSeen());
+        assertThat(stored.get(0).lastSeen()).isAfter(first.lastSeen());
+    }
+
+    @Test
+    void pagesWithCursor() {
+        for (int i = 1; i <= 5; i++) {
+            store.save(List.of(new JobPosting("Job " + i, null, "https://mx.computrabajo.com/oferta-" + i, "computrabajo")));
+        }
+        store.save(List.of(new JobPosting("Other", null, "https://www.occ.com.mx/empleo/9", "occ")));
+
+        PostingPage first = store.page(null, 2, "computrabajo");
+        PostingPage second = store.page(first.nextCursor(), 2, "computrabajo");
+        PostingPage last = store.page(second.nextCursor(), 2, "computrabajo");
+
+        assertThat(first.postings()).extracting(StoredPosting::title).containsExactly("Job 1", "Job 2");
+        assertThat(second.postings()).extracting(StoredPosting::title).containsExactly("Job 3", "Job 4");
+        assertThat(last.postings()).extracting(StoredPosting::title).containsExactly("Job 5");
+        assertThat(last.nextCursor()).isNull();
+        assertThat(store.countBySite()).containsEntry("computrabajo", 5L).containsEntry("occ", 1L);
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.jobscraperapi.scraper;
+
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScrapeDeadlineTests {
+
+    @Test
+    void cancellingInterruptsBlockedWaits() throws InterruptedException {
+        ScrapeDeadline deadline = ScrapeDeadline.none();
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        AtomicBoolean interruptLeaked = new AtomicBoolean();
+
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                deadline.interruptible(() -> {
+                    never.await();
+                    return null;
+                });
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+            interruptLeaked.set(Thread.currentThread().isInterrupted());
+        });
+
+        while (waiter.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        deadline.cancel("Client disconnected");
+        waiter.join(5000);
+
+        assertThat(thrown.get())
+                .isInstanceOf(ScrapeDeadline.Cancelled.class)
+                .hasMessage("Client disconnected");
+        assertThat(interruptLeaked).isFalse();
+        assertThat(deadline.isOver()).isTrue();
+    }
+
+    @Test
+    void budgetBoundsTimeoutsAndRunsOut() {
+        assertThat(ScrapeDeadline.none().bound(Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(30));
+        assertThat(ScrapeDeadline.in(Duration.ofSeconds(5)).bound(Duration.ofSeconds(30)))
+                .isLessThanOrEqualTo(Duration.ofSeconds(5));
+
+        ScrapeDeadline spent = ScrapeDeadline.in(Duration.ZERO);
+        assertThat(spent.isOver()).isTrue();
+        assertThat(spent.isCancelled()).isFalse();
+        assertThatThrownBy(spent::check)
+                .isInstanceOf(ScrapeDeadline.Cancelled.class)
+                .hasMessageContaining("Deadline");
+    }
+
+    @Test
+    void requestedBudgetsAreCappedByTheMaximum() {
+        ScraperProperties.Deadline config = new ScraperProperties().getDeadline();
+
+        assertThat(config.budgetFor(null)).isEqualTo(config.getDefaultBudget());
+        assertThat(config.budgetFor(20)).isEqualTo(Duration.ofSeconds(20));
+        assertThat(config.budgetFor(100_000)).isEqualTo(config.getMaxBudget());
+    }
+}
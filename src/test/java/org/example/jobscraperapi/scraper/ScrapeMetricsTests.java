@@ -0,0 +1,63 @@
+package org.example.jobscraperapi.scraper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.jobscraperapi.model.SiteResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapeMetricsTests {
+
+    @Test
+    void timesPhasesPerSite() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScrapeMetrics metrics = new ScrapeMetrics(registry);
+
+        String value = metrics.time(ScrapeMetrics.PHASE_NAVIGATION, "occ", () -> "loaded");
+        metrics.time(ScrapeMetrics.PHASE_WAIT, "occ", () -> { });
+        metrics.record(ScrapeMetrics.PHASE_ACQUIRE, "computrabajo", 1_000_000);
+
+        assertThat(value).isEqualTo("loaded");
+        assertThat(registry.get("scraper.phase").tags("phase", "navigation", "site", "occ").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("scraper.phase").tags("phase", "wait", "site", "occ").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("scraper.phase").tags("phase", "acquire", "site", "computrabajo").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void countsTasksByStatusAndMode() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScrapeMetrics metrics = new ScrapeMetrics(registry);
+
+        metrics.taskFinished(SiteResult.success("occ", "https://www.occ.com.mx", List.of()).withMode("http"));
+        metrics.taskFinished(SiteResult.blocked("occ", "https://www.occ.com.mx", "Blocked"));
+        metrics.taskFinished(SiteResult.blocked("occ", "https://www.occ.com.mx", "Blocked"));
+
+        assertThat(registry.get("scraper.tasks").tags("status", "success", "mode", "http").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("scraper.tasks").tags("status", "blocked", "mode", "browser").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void countsPageRequestsBySiteAndResourceType() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScrapeMetrics metrics = new ScrapeMetrics(registry);
+
+        metrics.requestBlocked("occ", "image");
+        metrics.requestBlocked("occ", "image");
+        metrics.requestAllowed("occ", "document", 2_048);
+        metrics.requestAllowed("occ", "document", 1_024);
+
+        assertThat(registry.get("scraper.requests.blocked").tags("site", "occ", "type", "image").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("scraper.requests.allowed").tags("site", "occ", "type", "document").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("scraper.requests.allowed.bytes").tags("site", "occ").counter().count())
+                .isEqualTo(3_072);
+    }
+}
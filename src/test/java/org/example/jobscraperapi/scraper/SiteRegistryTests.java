@@ -0,0 +1,125 @@
+package org.example.jobscraperapi.scraper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SiteRegistryTests {
+
+    @Test
+    void loadsBundledSiteDefinitions() {
+        SiteRegistry registry = new SiteRegistry(new ScraperProperties(), List.of(), new ObjectMapper());
+        registry.load();
+
+        assertThat(registry.all()).extracting(SiteScraper::name).containsExactly("computrabajo", "occ");
+        assertThat(registry.all()).allMatch(SiteScraper::hasDetails);
+        assertThat(registry.find("computrabajo").orElseThrow().detailsHttpFetchable()).isTrue();
+        assertThat(registry.find("occ").orElseThrow().detailsHttpFetchable()).isFalse();
+
+        SiteScraper computrabajo = registry.find("computrabajo").orElseThrow();
+        assertThat(computrabajo.buildUrl("python  junior", 1))
+                .isEqualTo("https://mx.computrabajo.com/trabajo-de-python-junior");
+        assertThat(computrabajo.buildUrl("python junior", 2))
+                .isEqualTo("https://mx.computrabajo.com/trabajo-de-python-junior?p=2");
+        assertThat(registry.find("occ").orElseThrow().buildUrl("java", 3))
+                .isEqualTo("https://www.occ.com.mx/empleos/de-java?page=3");
+    }
+
+    @Test
+    void movesSitesToConfiguredBaseUrls() {
+        ScraperProperties properties = new ScraperProperties();
+        properties.getSites().getBaseUrls().put("occ", "http://127.0.0.1:8089/occ/");
+        SiteRegistry registry = new SiteRegistry(properties, List.of(), new ObjectMapper());
+        registry.load();
+
+        SiteScraper occ = registry.find("occ").orElseThrow();
+        assertThat(occ.buildUrl("java", 2)).isEqualTo("http://127.0.0.1:8089/occ/empleos/de-java?page=2");
+        List<JobPosting> postings = occ.extract(Jsoup.parse(
+                "<div id=\"jobcard-1\"><a href=\"/empleo/oferta/1/\">ACME</a><h2>Java</h2></div>"));
+        assertThat(postings).extracting(JobPosting::url)
+                .containsExactly("http://127.0.0.1:8089/occ/empleo/oferta/1/");
+        assertThat(registry.find("computrabajo").orElseThrow().buildUrl("java", 1))
+                .isEqualTo("https://mx.computrabajo.com/trabajo-de-java");
+    }
+
+    @Test
+    void extractsPostingsFromServerRenderedHtml() {
+        SiteRegistry registry = new SiteRegistry(new ScraperProperties(), List.of(), new ObjectMapper());
+        registry.load();
+        SiteScraper computrabajo = registry.find("computrabajo").orElseThrow();
+
+        String html = """
+                <div id="offersGridOfferContainer">
+                  <article>
+                    <h2 class="fs18 fwB">Python Developer</h2>
+                    <a class="js-o-link fc_base" href="/ofertas-de-trabajo/oferta-1">Ver</a>
+                    <p class="dIB fs16 fc_base mt5">ACME</p>
+                  </article>
+                  <article><h2 class="fs18 fwB">Sin enlace</h2></article>
+                </div>
+                """;
+
+        List<JobPosting> postings = computrabajo.extract(Jsoup.parse(html, "https://mx.computrabajo.com/"));
+
+        assertThat(computrabajo.httpFetchable()).isTrue();
+        assertThat(postings).containsExactly(
+                new JobPosting("Python Developer", "ACME",
+                        "https://mx.computrabajo.com/ofertas-de-trabajo/oferta-1", "computrabajo"),
+                new JobPosting("Sin enlace", null, null, "computrabajo"));
+    }
+
+    @Test
+    void recordedFixturesMatchSiteSelectors() throws IOException {
+        SiteRegistry registry = new SiteRegistry(new ScraperProperties(), List.of(), new ObjectMapper());
+        registry.load();
+
+        for (SiteScraper site : registry.all()) {
+            String html;
+            try (InputStream input = getClass().getResourceAsStream("/fixtures/" + site.name() + ".html")) {
+                html = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            List<JobPosting> postings = site.extract(Jsoup.parse(html, "https://fixture.local/"));
+
+            assertThat(postings).as(site.name()).hasSize(20).allSatisfy(posting -> {
+                assertThat(posting.title()).isNotBlank();
+                assertThat(posting.company()).isNotBlank();
+                assertThat(posting.url()).startsWith("https://");
+            });
+        }
+    }
+
+    @Test
+    void postingPageFixturesMatchDetailSelectors() throws IOException {
+        SiteRegistry registry = new SiteRegistry(new ScraperProperties(), List.of(), new ObjectMapper());
+        registry.load();
+
+        assertThat(registry.find("computrabajo").orElseThrow().extractDetails(fixture("computrabajo-posting")))
+                .containsEntry("salary", "$ 51,000.00 (Mensual)")
+                .containsEntry("location", "Ciudad de México, CDMX")
+                .hasEntrySatisfying("description", description -> assertThat(description)
+                        .startsWith("Buscamos Programador Python")
+                        .doesNotContain("Requerimientos"));
+        assertThat(registry.find("occ").orElseThrow().extractDetails(fixture("occ-posting")))
+                .containsEntry("salary", "$16,000 - $84,000 Mensual")
+                .containsEntry("location", "Guadalajara, Jal.")
+                .hasEntrySatisfying("description", description -> assertThat(description)
+                        .startsWith("Buscamos QA Automation Engineer"));
+    }
+
+    private Document fixture(String name) throws IOException {
+        try (InputStream input = getClass().getResourceAsStream("/fixtures/" + name + ".html")) {
+            return Jsoup.parse(new String(input.readAllBytes(), StandardCharsets.UTF_8), "https://fixture.local/");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.jobscraperapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.BatchResult;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class BatchScrapeServiceTests {
+
+    private ScraperProperties properties;
+    private ScrapeResultCache cache;
+    private BatchScrapeService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScraperProperties();
+        properties.getBatch().setMaxKeywordSets(3);
+        cache = new ScrapeResultCache(properties);
+        // Every page is cached here, nothing reaches the browser or the HTTP client
+        service = batchService(null);
+    }
+
+    private BatchScrapeService batchService(ScrapeDispatcher dispatcher) {
+        SiteRegistry siteRegistry = new SiteRegistry(properties, List.of(), new ObjectMapper());
+        siteRegistry.load();
+        return new BatchScrapeService(null, null, null, new PolitenessScheduler(properties), cache,
+                siteRegistry, null, null, new KeywordPopularity(properties), null, dispatcher, properties);
+    }
+
+    @Test
+    void sharedPagesAreResolvedOnceAndGroupedPerKeywordSet() {
+        for (String site : List.of("computrabajo", "occ")) {
+            for (int page = 1; page <= 2; page++) {
+                cache.put("java developer", site, page, SiteResult.success(site, "https://example.com/" + site,
+                        List.of(new JobPosting("Java developer", "ACME", "https://example.com/" + site + "/" + page, site))));
+            }
+        }
+
+        // Extra spaces lead to the same URLs, blank and repeated sets are dropped
+        BatchScrapeService.Outcome outcome = service.scrape(
+                Arrays.asList("java developer", " java   developer", "java developer", " ", null), null);
+
+        assertThat(outcome.results()).extracting(BatchResult::keywords)
+                .containsExactly("java developer", "java   developer");
+        assertThat(outcome.plannedPages()).isEqualTo(8);
+        assertThat(outcome.uniquePages()).isEqualTo(4);
+        assertThat(outcome.scrapedPages()).isZero();
+        for (BatchResult result : outcome.results()) {
+            assertThat(result.results()).extracting(SiteResult::site, SiteResult::page)
+                    .containsExactly(
+                            tuple("computrabajo", 1),
+                            tuple("occ", 1),
+                            tuple("computrabajo", 2),
+                            tuple("occ", 2));
+            assertThat(result.results()).allMatch(SiteResult::cached);
+        }
+    }
+
+    @Test
+    void queuesRunsOnTheDispatcherAndCancelsTheOnesLeftAtTheDeadline() {
+        // No permits, so the runs stay queued until the batch runs out of time
+        properties.getDispatcher().setConcurrency(0);
+        properties.getDispatcher().setQueueCapacity(2);
+        ScrapeDispatcher dispatcher = new ScrapeDispatcher(properties, null);
+        try {
+            BatchScrapeService batch = batchService(dispatcher);
+
+            BatchScrapeService.Outcome outcome = batch.scrape(List.of("contador"), 1);
+
+            assertThat(outcome.scrapedPages()).isEqualTo(4);
+            assertThat(outcome.results()).singleElement().satisfies(result -> assertThat(result.results())
+                    .extracting(SiteResult::site, SiteResult::page, SiteResult::status)
+                    .containsExactlyInAnyOrder(
+                            tuple("computrabajo", 1, "cancelled"),
+                            tuple("computrabajo", 2, "cancelled"),
+                            tuple("occ", 1, "cancelled"),
+                            tuple("occ", 2, "cancelled")));
+            assertThat(dispatcher.queuedTasks()).isZero();
+
+            // One run per site, more than the queue has room for
+            properties.getBatch().setPagesPerContext(1);
+            assertThatThrownBy(() -> batch.scrape(List.of("contador"), 1))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(dispatcher.queuedTasks()).isZero();
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() {
+        assertThatThrownBy(() -> service.scrape(Collections.emptyList(), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.scrape(List.of("a", "b", "c", "d"), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("At most 3");
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeltaTrackerTests {
+
+    private static JobPosting posting(String title, String url) {
+        return new JobPosting(title, "ACME", url, "occ");
+    }
+
+    @Test
+    void returnsOnlyNewOrChangedPostings() {
+        DeltaTracker tracker = new DeltaTracker(new ScraperProperties());
+        JobPosting java = posting("Java dev", "https://www.occ.com.mx/empleo/1");
+        JobPosting python = posting("Python dev", "https://www.occ.com.mx/empleo/2");
+
+        assertThat(tracker.fresh("java", "occ", List.of(java, python), null)).containsExactly(java, python);
+        assertThat(tracker.fresh(" Java ", "occ", List.of(java, python), null)).isEmpty();
+
+        JobPosting renamed = posting("Senior Python dev", "https://www.occ.com.mx/empleo/2/");
+        JobPosting go = posting("Go dev", "https://www.occ.com.mx/empleo/3");
+        assertThat(tracker.fresh("java", "occ", List.of(java, renamed, go), null)).containsExactly(renamed, go);
+
+        // Other keywords keep their own fingerprints
+        assertThat(tracker.fresh("python", "occ", List.of(java), null)).containsExactly(java);
+    }
+
+    @Test
+    void sinceResendsPostingsChangedAfterIt() throws InterruptedException {
+        DeltaTracker tracker = new DeltaTracker(new ScraperProperties());
+        JobPosting java = posting("Java dev", "https://www.occ.com.mx/empleo/1");
+        tracker.fresh("java", "occ", List.of(java), null);
+        long since = System.currentTimeMillis();
+
+        Thread.sleep(5);
+        JobPosting python = posting("Python dev", "https://www.occ.com.mx/empleo/2");
+        // Another client's scrape records the new posting first
+        tracker.fresh("java", "occ", List.of(java, python), null);
+
+        assertThat(tracker.fresh("java", "occ", List.of(java, python), since)).containsExactly(python);
+    }
+
+    @Test
+    void forgetsOldestFingerprintsBeyondLimit() {
+        ScraperProperties properties = new ScraperProperties();
+        properties.getDelta().setMaxPostingsPerScope(2);
+        DeltaTracker tracker = new DeltaTracker(properties);
+        JobPosting first = posting("1", "https://www.occ.com.mx/empleo/1");
+        JobPosting second = posting("2", "https://www.occ.com.mx/empleo/2");
+        JobPosting third = posting("3", "https://www.occ.com.mx/empleo/3");
+
+        tracker.fresh("java", "occ", List.of(first, second, third), null);
+
+        assertThat(tracker.fresh("java", "occ", List.of(first), null)).containsExactly(first);
+    }
+}
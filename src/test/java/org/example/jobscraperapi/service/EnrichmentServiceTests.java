@@ -0,0 +1,227 @@
+package org.example.jobscraperapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.EnrichedPosting;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.scraper.DeclarativeSiteScraper;
+import org.example.jobscraperapi.scraper.HttpSiteFetcher;
+import org.example.jobscraperapi.scraper.JobCardExtractor;
+import org.example.jobscraperapi.scraper.ScrapeMetrics;
+import org.example.jobscraperapi.scraper.SiteDefinition;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EnrichmentServiceTests {
+
+    private static final String DETAIL_PAGE = """
+            <main>
+              <p class="fs16 mb5">Monterrey, N.L.</p>
+              <div div-link="oferta">
+                <span class="tag base">$30,000 mensuales</span>
+                <p class="mbB">Buscamos desarrollador Java con experiencia en Spring.</p>
+              </div>
+            </main>
+            """;
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private ScraperProperties properties;
+    private ScrapeDispatcher dispatcher;
+    private EnrichmentService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/oferta", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = DETAIL_PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.createContext("/bloqueada", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(403, -1);
+            exchange.close();
+        });
+        // Computrabajo's posting page, the bundled board is moved onto the test server
+        server.createContext("/ofertas-de-trabajo", exchange -> {
+            requests.incrementAndGet();
+            byte[] body;
+            try (InputStream input = getClass().getResourceAsStream("/fixtures/computrabajo-posting.html")) {
+                body = input.readAllBytes();
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+
+        properties = new ScraperProperties();
+        properties.getSites().getBaseUrls().put("computrabajo", "http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        properties.getPoliteness().setMinInterval(Duration.ZERO);
+        properties.getPoliteness().setJitter(Duration.ZERO);
+        SiteRegistry siteRegistry = new SiteRegistry(properties, List.of(localBoard()), new ObjectMapper());
+        siteRegistry.load();
+        ScrapeMetrics metrics = new ScrapeMetrics(new SimpleMeterRegistry());
+        // The local board's posting pages are server-rendered, nothing reaches the browser
+        SiteLimiter siteLimiter = new SiteLimiter(properties, metrics);
+        dispatcher = new ScrapeDispatcher(properties, siteLimiter);
+        service = new EnrichmentService(null, null, metrics, new PolitenessScheduler(properties),
+                siteRegistry, new HttpSiteFetcher(metrics), dispatcher, siteLimiter, properties);
+    }
+
+    // A board served by the test server, with the detail fields of its posting pages
+    private DeclarativeSiteScraper localBoard() {
+        SiteDefinition definition = new SiteDefinition();
+        definition.setName("local");
+        definition.setUrlTemplate("http://127.0.0.1:" + server.getAddress().getPort() + "/trabajo-de-{keywords}");
+        definition.setFetchMode("http");
+        definition.setCardSelector("article");
+        definition.setFields(Map.of("title", new JobCardExtractor.Field("h2", null, null)));
+        SiteDefinition.Detail detail = new SiteDefinition.Detail();
+        detail.setContainerSelector("main");
+        detail.setFields(Map.of(
+                "description", new JobCardExtractor.Field("div[div-link='oferta'] p.mbB", null, null),
+                "salary", new JobCardExtractor.Field("div[div-link='oferta'] span.tag.base", null, null),
+                "location", new JobCardExtractor.Field("p.fs16.mb5", null, null)));
+        definition.setDetail(detail);
+        return new DeclarativeSiteScraper(definition);
+    }
+
+    @AfterEach
+    void stopServer() {
+        dispatcher.shutdown();
+        server.stop(0);
+    }
+
+    private String url(int id) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/oferta-" + id;
+    }
+
+    @Test
+    void readsServerRenderedDetailsOverHttpAndCachesThem() {
+        JobPosting posting = new JobPosting("Java developer", "ACME", url(1), "local");
+
+        EnrichedPosting enriched = service.enrich(posting);
+
+        assertThat(enriched.isSuccess()).isTrue();
+        assertThat(enriched.mode()).isEqualTo("http");
+        assertThat(enriched.details()).isEqualTo(Map.of(
+                "description", "Buscamos desarrollador Java con experiencia en Spring.",
+                "salary", "$30,000 mensuales",
+                "location", "Monterrey, N.L."));
+
+        assertThat(service.enrich(posting)).isEqualTo(enriched);
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void readsBundledBoardDetails() {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort()
+                + "/ofertas-de-trabajo/oferta-de-trabajo-de-programador-python-en-ciudad-de-mexico--cdmx-60157014B73AEB8C8B76BA79D7EDF2EB";
+
+        EnrichedPosting enriched = service.enrich(new JobPosting("Programador Python", "Grupo Financiero Banorte", url, "computrabajo"));
+
+        assertThat(enriched.isSuccess()).isTrue();
+        assertThat(enriched.mode()).isEqualTo("http");
+        assertThat(enriched.details())
+                .containsEntry("salary", "$ 51,000.00 (Mensual)")
+                .containsEntry("location", "Ciudad de México, CDMX")
+                .containsKey("description");
+    }
+
+    @Test
+    void refusedPagesOpenTheSiteCircuit() {
+        properties.getLimiter().setBaseBackoff(Duration.ZERO);
+        properties.getLimiter().setFailureThreshold(2);
+        String blocked = "http://127.0.0.1:" + server.getAddress().getPort() + "/bloqueada-";
+
+        List<EnrichedPosting> results = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            results.add(service.enrich(new JobPosting("Java", "ACME", blocked + i, "local")));
+        }
+
+        assertThat(results).extracting(EnrichedPosting::status)
+                .containsExactly("blocked", "blocked", "failed", "failed");
+        assertThat(results.getLast().message()).contains("temporarily unavailable");
+        // Pages behind the open circuit are never requested
+        assertThat(requests).hasValue(2);
+        assertThat(dispatcher.queuedTasks()).isZero();
+    }
+
+    @Test
+    void streamsEveryPostingOnceThenCompletes() {
+        List<ServerSentEvent<Object>> events = service.stream(List.of(
+                new JobPosting("Java", "ACME", url(1), "local"),
+                new JobPosting("Java", "ACME", url(1) + "?utm_source=feed", "local"),
+                new JobPosting("Python", "ACME", url(2), "local"),
+                new JobPosting("Sin enlace", "ACME", null, "local"),
+                new JobPosting("Otro sitio", "ACME", url(3), "unknown"),
+                new JobPosting("Sin sitio", "ACME", url(4), null))).collectList().block(Duration.ofSeconds(30));
+
+        assertThat(events).extracting(ServerSentEvent::event).containsExactly(
+                "details", "details", "details", "details", "details", "complete");
+        List<EnrichedPosting> details = events.stream()
+                .filter(event -> "details".equals(event.event()))
+                .map(event -> (EnrichedPosting) event.data())
+                .toList();
+        assertThat(details).filteredOn(EnrichedPosting::isSuccess)
+                .extracting(result -> result.posting().url())
+                .containsExactlyInAnyOrder(url(1), url(2));
+        assertThat(details).filteredOn(result -> EnrichedPosting.UNSUPPORTED.equals(result.status()))
+                .hasSize(3);
+        assertThat(events.getLast().data()).asInstanceOf(InstanceOfAssertFactories.MAP)
+                .containsEntry("total", 5)
+                .containsEntry("enriched", 2);
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void refusesUrlsOffTheSiteOriginBeforeReadingAnything() {
+        int port = server.getAddress().getPort();
+        for (String url : List.of(
+                "http://169.254.169.254/latest/meta-data/",
+                "http://127.0.0.1:" + (port + 1) + "/oferta-1",
+                "https://127.0.0.1:" + port + "/oferta-1",
+                "http://127.0.0.1:" + port + "@localhost/oferta-1",
+                "file:///etc/passwd")) {
+            assertThatThrownBy(() -> service.enrich(new JobPosting(null, null, url, "local")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("not a page of site local");
+        }
+        // The stream answers with an error event, the same as its other bad requests
+        List<ServerSentEvent<Object>> events = service.stream(List.of(
+                new JobPosting("Java", "ACME", url(1), "local"),
+                new JobPosting("Interno", "ACME", "http://localhost:" + port + "/oferta-2", "local")))
+                .collectList().block(Duration.ofSeconds(5));
+        assertThat(events).extracting(ServerSentEvent::event).containsExactly("error");
+        assertThat((String) events.getFirst().data()).contains("not a page of site local");
+
+        assertThat(requests).hasValue(0);
+        assertThat(service.stats()).containsEntry("cachedPostings", 0);
+    }
+}
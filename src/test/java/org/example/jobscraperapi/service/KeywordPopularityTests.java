@@ -0,0 +1,48 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordPopularityTests {
+
+    @Test
+    void ranksNormalizedKeywordsByRequests() {
+        KeywordPopularity popularity = new KeywordPopularity(new ScraperProperties());
+
+        popularity.record("Python  Junior");
+        popularity.record("java");
+        popularity.record("python junior");
+        popularity.record("  ");
+
+        assertThat(popularity.top(1)).containsExactly("python junior");
+        assertThat(popularity.top(5)).containsExactly("python junior", "java");
+    }
+
+    @Test
+    void decayForgetsOldRequests() {
+        KeywordPopularity popularity = new KeywordPopularity(new ScraperProperties());
+        popularity.record("java");
+        for (int i = 0; i < 5; i++) {
+            popularity.decay();
+        }
+        popularity.record("go");
+
+        assertThat(popularity.top(5)).containsExactly("go");
+    }
+
+    @Test
+    void tracksLimitedNumberOfKeywords() {
+        ScraperProperties properties = new ScraperProperties();
+        properties.getPrewarm().setMaxTrackedKeywords(2);
+        KeywordPopularity popularity = new KeywordPopularity(properties);
+
+        popularity.record("java");
+        popularity.record("java");
+        popularity.record("go");
+        popularity.record("rust");
+
+        assertThat(popularity.snapshot()).containsOnlyKeys("java", "rust");
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.SiteResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingDeduplicatorTests {
+
+    private static final ScraperProperties.Dedupe CONFIG = new ScraperProperties().getDedupe();
+
+    private static JobPosting occ(String title, String company, int id) {
+        return new JobPosting(title, company, "https://www.occ.com.mx/empleo/" + id, "occ");
+    }
+
+    private static JobPosting computrabajo(String title, String company, int id) {
+        return new JobPosting(title, company, "https://mx.computrabajo.com/oferta/" + id, "computrabajo");
+    }
+
+    private static SiteResult page(String site, JobPosting... postings) {
+        return SiteResult.success(site, "https://example.com/" + site, List.of(postings));
+    }
+
+    @Test
+    void mergesTheSameJobFromAnotherSiteIntoTheFirstCopy() {
+        PostingDeduplicator deduplicator = new PostingDeduplicator(CONFIG);
+        deduplicator.apply(page("occ",
+                occ("Desarrollador Java Senior (Remoto)", "ACME S.A. de C.V.", 1),
+                occ("Ingeniero de Datos", "ACME S.A. de C.V.", 2)));
+
+        PostingDeduplicator.Outcome outcome = deduplicator.apply(page("computrabajo",
+                computrabajo("Desarrolladores JAVA senior - remoto", "Acme", 10),
+                computrabajo("Ingeniero de Datos", "Grupo Bimbo", 11),
+                computrabajo("Desarrollador Python Senior", "ACME", 12)));
+
+        assertThat(outcome.result().postings()).extracting(JobPosting::url).containsExactly(
+                "https://mx.computrabajo.com/oferta/11",
+                "https://mx.computrabajo.com/oferta/12");
+        assertThat(outcome.result().duplicates()).isEqualTo(1);
+        assertThat(outcome.merged()).singleElement().satisfies(merged -> {
+            assertThat(merged.title()).isEqualTo("Desarrollador Java Senior (Remoto)");
+            assertThat(merged.sources()).containsExactly(
+                    "https://www.occ.com.mx/empleo/1",
+                    "https://mx.computrabajo.com/oferta/10");
+        });
+    }
+
+    @Test
+    void keepsSimilarPostingsOfTheSameSiteApart() {
+        PostingDeduplicator deduplicator = new PostingDeduplicator(CONFIG);
+
+        PostingDeduplicator.Outcome outcome = deduplicator.apply(page("occ",
+                occ("Vendedor de piso", "Liverpool", 1),
+                occ("Vendedor de piso", "Liverpool", 2),
+                occ("Vendedor de piso", "Liverpool", 1)));
+
+        assertThat(outcome.result().postings()).extracting(JobPosting::url).containsExactly(
+                "https://www.occ.com.mx/empleo/1",
+                "https://www.occ.com.mx/empleo/2");
+        assertThat(outcome.result().duplicates()).isEqualTo(1);
+        assertThat(outcome.merged()).isEmpty();
+    }
+
+    @Test
+    void mergedListsCarryTheSourcesOnTheKeptPosting() {
+        List<SiteResult> merged = PostingDeduplicator.merge(List.of(
+                page("occ", occ("Contador General", "Grupo Modelo", 1)),
+                page("computrabajo", computrabajo("Contador general", "Grupo Modelo SAB de CV", 2))), CONFIG);
+
+        assertThat(merged.get(0).postings()).singleElement()
+                .extracting(JobPosting::sources)
+                .isEqualTo(List.of("https://www.occ.com.mx/empleo/1", "https://mx.computrabajo.com/oferta/2"));
+        assertThat(merged.get(1).postings()).isEmpty();
+        assertThat(merged.get(1).duplicates()).isEqualTo(1);
+
+        ScraperProperties.Dedupe disabled = new ScraperProperties.Dedupe();
+        disabled.setEnabled(false);
+        assertThat(PostingDeduplicator.merge(List.of(
+                page("occ", occ("Contador General", "Grupo Modelo", 1)),
+                page("computrabajo", computrabajo("Contador general", "Grupo Modelo", 2))), disabled))
+                .allSatisfy(result -> assertThat(result.postings()).hasSize(1));
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.jobscraperapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostingExporterTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private EmbeddedDatabase database;
+    private PostingStore store;
+    private PostingExporter exporter;
+
+    @BeforeEach
+    void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        store = new PostingStore(new JdbcTemplate(database));
+        exporter = new PostingExporter(store, objectMapper);
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    private String export(PostingExporter.Format format, String cursor, String site) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exporter.export(format, cursor, site, false).writeTo(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void exportsEveryPageAsNdjsonAndResumesFromAnId() throws IOException {
+        List<JobPosting> postings = new ArrayList<>();
+        for (int i = 1; i <= 450; i++) {
+            postings.add(new JobPosting("Oferta " + i, "ACME", "https://www.occ.com.mx/empleo/" + i, "occ"));
+        }
+        store.save(postings);
+        store.save(List.of(new JobPosting("Contador", null, "https://mx.computrabajo.com/oferta/1", "computrabajo")));
+
+        List<String> lines = export(PostingExporter.Format.NDJSON, null, null).lines().toList();
+        assertThat(lines).hasSize(451);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("title").asText()).isEqualTo("Oferta 1");
+        assertThat(first.has("firstSeen")).isTrue();
+        assertThat(objectMapper.readTree(lines.get(450)).has("company")).isFalse();
+
+        String resumeFrom = objectMapper.readTree(lines.get(299)).get("id").asText();
+        List<String> rest = export(PostingExporter.Format.NDJSON, resumeFrom, null).lines().toList();
+        assertThat(rest).hasSize(151);
+        assertThat(rest.get(0)).isEqualTo(lines.get(300));
+
+        assertThat(export(PostingExporter.Format.NDJSON, null, "computrabajo").lines()).hasSize(1);
+    }
+
+    @Test
+    void quotesCsvValuesAndCompressesWhenAsked() throws IOException {
+        store.save(List.of(new JobPosting("Analista \"Sr\", finanzas", "ACME", "https://www.occ.com.mx/empleo/1", "occ")));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exporter.export(PostingExporter.Format.CSV, null, null, true).writeTo(output);
+        String csv;
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            csv = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        List<String> rows = csv.lines().toList();
+        assertThat(rows.get(0)).isEqualTo("id,title,company,url,site,first_seen,last_seen");
+        assertThat(rows.get(1)).contains(",\"Analista \"\"Sr\"\", finanzas\",ACME,https://www.occ.com.mx/empleo/1,occ,");
+        assertThat(rows).hasSize(2);
+    }
+
+    @Test
+    void rejectsInvalidCursorsAndFormatsBeforeWriting() {
+        assertThatThrownBy(() -> exporter.export(PostingExporter.Format.NDJSON, "abc", null, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PostingExporter.Format.parse("xml"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ndjson or csv");
+        assertThat(PostingExporter.Format.parse(" CSV ")).isEqualTo(PostingExporter.Format.CSV);
+    }
+}
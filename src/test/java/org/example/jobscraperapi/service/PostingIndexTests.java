@@ -0,0 +1,92 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.SearchHit;
+import org.example.jobscraperapi.repository.PostingStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingIndexTests {
+    private EmbeddedDatabase database;
+    private PostingStore store;
+    private PostingIndex index;
+
+    @BeforeEach
+    void createDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        store = new PostingStore(new JdbcTemplate(database));
+        index = new PostingIndex(store);
+        index.listen();
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    private static JobPosting posting(String title, String company, int id) {
+        return new JobPosting(title, company, "https://www.occ.com.mx/empleo/" + id, "occ");
+    }
+
+    @Test
+    void ignoresAccentsCaseAndPlurals() {
+        store.save(List.of(
+                posting("Desarrollador de Programación Java", "ACME", 1),
+                posting("Ingeniero de Datos", "Grupo Bimbo", 2),
+                posting("Gerente de ventas", "Liverpool", 3)));
+
+        assertThat(index.search("PROGRAMACION desarrolladores", null, 10).hits())
+                .extracting(SearchHit::url)
+                .containsExactly("https://www.occ.com.mx/empleo/1");
+        assertThat(index.search("ingenieros de datos", null, 10).hits())
+                .extracting(SearchHit::url)
+                .containsExactly("https://www.occ.com.mx/empleo/2");
+        assertThat(index.search("de la", null, 10).total()).isZero();
+    }
+
+    @Test
+    void ranksTitleMatchesFirstAndFiltersBySite() {
+        store.save(List.of(
+                posting("Contador", "Java Consulting", 1),
+                posting("Java developer", "ACME", 2),
+                new JobPosting("Java developer", "ACME", "https://mx.computrabajo.com/oferta/3", "computrabajo")));
+
+        PostingIndex.Results results = index.search("java", null, 10);
+        assertThat(results.total()).isEqualTo(3);
+        assertThat(results.hits().get(2).url()).isEqualTo("https://www.occ.com.mx/empleo/1");
+
+        assertThat(index.search("java", "occ", 1).hits())
+                .extracting(SearchHit::url)
+                .containsExactly("https://www.occ.com.mx/empleo/2");
+        assertThat(index.search("java", "occ", 10).total()).isEqualTo(2);
+    }
+
+    @Test
+    void reindexesChangedPostingsAndLoadsStoredOnes() {
+        store.save(List.of(posting("Analista de sistemas", "ACME", 1)));
+        store.save(List.of(posting("Arquitecto de software", "ACME", 1)));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("analista", null, 10).total()).isZero();
+        assertThat(index.search("arquitectos", null, 10).total()).isEqualTo(1);
+
+        PostingIndex reloaded = new PostingIndex(store);
+        reloaded.load();
+        assertThat(reloaded.search("software", null, 10).hits())
+                .extracting(SearchHit::title)
+                .containsExactly("Arquitecto de software");
+    }
+}
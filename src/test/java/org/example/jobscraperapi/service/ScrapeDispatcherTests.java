@@ -0,0 +1,213 @@
+package org.example.jobscraperapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.scraper.ScrapeMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScrapeDispatcherTests {
+
+    private ScrapeDispatcher dispatcher;
+
+    private ScrapeDispatcher dispatcher(int concurrency, int queueCapacity) {
+        ScraperProperties properties = new ScraperProperties();
+        properties.getDispatcher().setConcurrency(concurrency);
+        properties.getDispatcher().setQueueCapacity(queueCapacity);
+        dispatcher = new ScrapeDispatcher(properties,
+                new SiteLimiter(properties, new ScrapeMetrics(new SimpleMeterRegistry())));
+        return dispatcher;
+    }
+
+    @AfterEach
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void servesSessionsRoundRobin() throws InterruptedException {
+        ScrapeDispatcher dispatcher = dispatcher(1, 10);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+
+        assertThat(dispatcher.tryAdmit(5)).isTrue();
+        dispatcher.enqueue("a", "occ", 5, () -> {
+            blocking.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // The only permit is taken, everything below waits in the queues
+        assertThat(blocking.await(5, TimeUnit.SECONDS)).isTrue();
+        for (String task : List.of("a1", "a2", "a3")) {
+            dispatcher.enqueue("a", "occ", 5, () -> {
+                order.add(task);
+                done.countDown();
+            });
+        }
+        dispatcher.enqueue("b", "occ", 5, () -> {
+            order.add("b1");
+            done.countDown();
+        });
+        blocker.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly("a1", "b1", "a2", "a3");
+    }
+
+    @Test
+    void limitsTasksPerSite() throws InterruptedException {
+        ScrapeDispatcher dispatcher = dispatcher(2, 10);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+
+        dispatcher.tryAdmit(3);
+        dispatcher.enqueue("a", "occ", 1, () -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            order.add("occ1");
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.enqueue("a", "occ", 1, () -> {
+            order.add("occ2");
+            done.countDown();
+        });
+        dispatcher.enqueue("a", "computrabajo", 1, () -> {
+            order.add("computrabajo1");
+            done.countDown();
+        });
+
+        // The second OCC task waits for the first one even though a permit is free
+        Thread.sleep(100);
+        assertThat(order).containsExactly("computrabajo1");
+
+        blocker.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly("computrabajo1", "occ1", "occ2");
+    }
+
+    @Test
+    void runsTasksOnVirtualThreadsUpToConcurrency() throws InterruptedException {
+        ScrapeDispatcher dispatcher = dispatcher(2, 10);
+        List<Boolean> virtual = new CopyOnWriteArrayList<>();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(3);
+
+        dispatcher.tryAdmit(3);
+        for (String site : List.of("occ", "computrabajo", "indeed")) {
+            dispatcher.enqueue("a", site, 5, () -> {
+                virtual.add(Thread.currentThread().isVirtual());
+                started.countDown();
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+
+        // Three sites with room, but only two permits
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        assertThat(dispatcher.runningTasks()).isEqualTo(2);
+        assertThat(dispatcher.queuedTasks()).isEqualTo(1);
+
+        blocker.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(virtual).containsExactly(true, true, true);
+    }
+
+    @Test
+    void runsBackgroundTasksAfterClientTasksOnHalfThePermits() throws InterruptedException {
+        ScrapeDispatcher dispatcher = dispatcher(2, 10);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(4);
+        Runnable blocking = () -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        };
+
+        dispatcher.tryAdmit(2);
+        dispatcher.enqueue("a", "occ", 5, blocking);
+        dispatcher.enqueue("b", "indeed", 5, blocking);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        // Both permits are taken, the background task is queued first but runs last
+        dispatcher.background("computrabajo", 5).execute(() -> {
+            order.add("background");
+            done.countDown();
+        });
+        dispatcher.tryAdmit(1);
+        dispatcher.enqueue("a", "occ", 5, () -> {
+            order.add("client");
+            done.countDown();
+        });
+        assertThat(dispatcher.queuedClientTasks()).isEqualTo(1);
+        assertThat(dispatcher.queuedTasks()).isEqualTo(2);
+
+        blocker.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly("client", "background");
+        assertThat(dispatcher.queuedTasks()).isZero();
+    }
+
+    @Test
+    void rejectsBackgroundTasksWhenQueueIsFull() {
+        ScrapeDispatcher dispatcher = dispatcher(0, 1);
+
+        dispatcher.background("occ", 5).execute(() -> { });
+        assertThatThrownBy(() -> dispatcher.background("occ", 5).execute(() -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(dispatcher.queuedClientTasks()).isZero();
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        ScrapeDispatcher dispatcher = dispatcher(1, 3);
+
+        assertThat(dispatcher.tryAdmit(2)).isTrue();
+        assertThat(dispatcher.tryAdmit(2)).isFalse();
+
+        dispatcher.release(2);
+        assertThat(dispatcher.tryAdmit(3)).isTrue();
+    }
+
+    @Test
+    void cancelDropsQueuedTasks() {
+        ScrapeDispatcher dispatcher = dispatcher(0, 10);
+
+        dispatcher.tryAdmit(2);
+        dispatcher.enqueue("a", "occ", 5, () -> { });
+        dispatcher.enqueue("a", "occ", 5, () -> { });
+
+        assertThat(dispatcher.cancel("a")).isEqualTo(2);
+        assertThat(dispatcher.queuedTasks()).isZero();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.jobscraperapi.service;
+
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.SiteResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapeResultCacheTests {
+
+    private static SiteResult success(String site) {
+        return SiteResult.success(site, "https://example.com/search",
+                List.of(new JobPosting("Python developer", "ACME", "https://example.com/1", site)));
+    }
+
+    private static ScrapeResultCache cache(ScraperProperties.Cache config) {
+        ScraperProperties properties = new ScraperProperties();
+        properties.setCache(config);
+        return new ScrapeResultCache(properties);
+    }
+
+    @Test
+    void normalizesKeywords() {
+        ScrapeResultCache cache = cache(new ScraperProperties.Cache());
+        cache.put("  Python   Junior ", "occ", 1, success("occ"));
+
+        SiteResult cached = cache.lookup("python junior", "occ", 1);
+
+        assertThat(cached.cached()).isTrue();
+        assertThat(cached.stale()).isFalse();
+        assertThat(cached.postings()).hasSize(1);
+        assertThat(cache.lookup("python junior", "computrabajo", 1)).isNull();
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        ScrapeResultCache cache = cache(new ScraperProperties.Cache());
+        cache.put("python", "occ", 1, SiteResult.blocked("occ", "https://example.com/search", "Blocked"));
+
+        assertThat(cache.lookup("python", "occ", 1)).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ScraperProperties.Cache config = new ScraperProperties.Cache();
+        config.setMaxEntries(2);
+        ScrapeResultCache cache = cache(config);
+
+        cache.put("java", "occ", 1, success("occ"));
+        cache.put("python", "occ", 1, success("occ"));
+        cache.lookup("java", "occ", 1);
+        cache.put("go", "occ", 1, success("occ"));
+
+        assertThat(cache.lookup("python", "occ", 1)).isNull();
+        assertThat(cache.lookup("java", "occ", 1)).isNotNull();
+        assertThat(cache.stats()).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void servesStaleAndRevalidates() throws InterruptedException {
+        ScraperProperties.Cache config = new ScraperProperties.Cache();
+        config.setTtl(Duration.ofMillis(200));
+        ScrapeResultCache cache = cache(config);
+        cache.put("python", "occ", 1, success("occ"));
+
+        Thread.sleep(250);
+
+        assertThat(cache.lookup("python", "occ", 1).stale()).isTrue();
+
+        JobPosting refreshed = new JobPosting("Python developer", "Globex", "https://example.com/2", "occ");
+        cache.revalidate("python", "occ", 1,
+                () -> SiteResult.success("occ", "https://example.com/search", List.of(refreshed)), Runnable::run);
+
+        SiteResult revalidated = cache.lookup("python", "occ", 1);
+        assertThat(revalidated.stale()).isFalse();
+        assertThat(revalidated.postings()).containsExactly(refreshed);
+        assertThat(cache.stats()).containsEntry("staleHits", 1L).containsEntry("entries", 1);
+    }
+
+    @Test
+    void reportsWhetherEntryOutlivesMargin() {
+        ScraperProperties.Cache config = new ScraperProperties.Cache();
+        config.setTtl(Duration.ofMinutes(10));
+        ScrapeResultCache cache = cache(config);
+        cache.put("python", "occ", 1, success("occ"));
+
+        assertThat(cache.freshFor("python", "occ", 1, Duration.ofMinutes(5))).isTrue();
+        assertThat(cache.freshFor("python", "occ", 1, Duration.ofMinutes(11))).isFalse();
+        assertThat(cache.freshFor("python", "occ", 2, Duration.ZERO)).isFalse();
+        assertThat(cache.stats()).containsEntry("hits", 0L).containsEntry("misses", 0L);
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.jobscraperapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.JobPosting;
+import org.example.jobscraperapi.model.ScrapingRequest;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.scraper.DeclarativeSiteScraper;
+import org.example.jobscraperapi.scraper.JobCardExtractor;
+import org.example.jobscraperapi.scraper.ScrapeMetrics;
+import org.example.jobscraperapi.scraper.SiteDefinition;
+import org.example.jobscraperapi.scraper.SiteRegistry;
+import org.example.jobscraperapi.scraper.SiteScraper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapeStreamServiceTests {
+
+    private ScraperProperties properties;
+    private ScrapeResultCache cache;
+    private SiteLimiter siteLimiter;
+    private ScrapeDispatcher dispatcher;
+    private ScrapeStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        ScraperProperties properties = new ScraperProperties();
+        properties.getPoliteness().setMinInterval(Duration.ZERO);
+        properties.getPoliteness().setJitter(Duration.ZERO);
+        // No permits, pages that miss the cache stay queued
+        properties.getDispatcher().setConcurrency(0);
+        // Every site lists the same posting here, merging them is left to PostingDeduplicatorTests
+        properties.getDedupe().setEnabled(false);
+
+        this.properties = properties;
+        cache = new ScrapeResultCache(properties);
+        siteLimiter = new SiteLimiter(properties, new ScrapeMetrics(new SimpleMeterRegistry()));
+        dispatcher = new ScrapeDispatcher(properties, siteLimiter);
+        service = streamService(List.of());
+    }
+
+    private ScrapeStreamService streamService(List<SiteScraper> extraSites) {
+        SiteRegistry siteRegistry = new SiteRegistry(properties, extraSites, new ObjectMapper());
+        siteRegistry.load();
+        // Only used to build page tasks, which never run here
+        JobScraperService scraperService = new JobScraperService(
+                null, null, null, null, cache, dispatcher, siteRegistry, null, null, null, null, siteLimiter, properties);
+        return new ScrapeStreamService(cache, dispatcher, new PolitenessScheduler(properties),
+                siteRegistry, new DeltaTracker(properties), new KeywordPopularity(properties), scraperService, properties);
+    }
+
+    @AfterEach
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    // Ten pages, scraped one at a time
+    private static DeclarativeSiteScraper deepBoard() {
+        SiteDefinition definition = new SiteDefinition();
+        definition.setName("deep");
+        definition.setUrlTemplate("https://example.com/deep/{keywords}");
+        definition.setPageParameter("page");
+        definition.setPageDepth(10);
+        definition.setMaxConcurrency(1);
+        definition.setCardSelector("article");
+        definition.setFields(Map.of("title", new JobCardExtractor.Field("h2", null, null)));
+        return new DeclarativeSiteScraper(definition);
+    }
+
+    private long cacheHits() {
+        return ((Number) cache.stats().get("hits")).longValue();
+    }
+
+    private void cachePage(String site, int page) {
+        cache.put("java", site, page, SiteResult.success(site, "https://example.com/" + site,
+                List.of(new JobPosting("Java developer", "ACME", "https://example.com/" + site + "/" + page, site))));
+    }
+
+    private static ScrapingRequest request() {
+        ScrapingRequest request = new ScrapingRequest();
+        request.setKeywords("java");
+        return request;
+    }
+
+    @Test
+    void streamsEveryPageThenCompletes() {
+        for (String site : List.of("computrabajo", "occ")) {
+            cachePage(site, 1);
+            cachePage(site, 2);
+        }
+
+        List<String> events = service.scrape(request())
+                .map(ServerSentEvent::event)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(events).containsExactly(
+                "job_data", "progress", "job_data", "progress",
+                "job_data", "progress", "job_data", "progress", "complete");
+        assertThat(dispatcher.queuedTasks()).isZero();
+        assertThat(service.activeStreams()).isZero();
+    }
+
+    @Test
+    void pagesAreScrapedAsTheClientReads() {
+        for (int page = 1; page <= 10; page++) {
+            cachePage("deep", page);
+        }
+
+        // The other boards miss the cache and stay queued, only the deep board answers.
+        // Each stage holds a single page ahead, then one more page is read per page sent
+        StepVerifier.create(streamService(List.of(deepBoard())).scrape(request()).map(ServerSentEvent::event), 0)
+                .then(() -> assertThat(cacheHits()).isEqualTo(4))
+                .thenRequest(2)
+                .expectNext("job_data", "progress")
+                .then(() -> assertThat(cacheHits()).isEqualTo(5))
+                .thenRequest(4)
+                .expectNext("job_data", "progress", "job_data", "progress")
+                .then(() -> assertThat(cacheHits()).isEqualTo(7))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void cancellingGivesBackAdmittedPages() {
+        cachePage("computrabajo", 1);
+        cachePage("occ", 1);
+
+        StepVerifier.create(service.scrape(request()).map(ServerSentEvent::event))
+                .expectNext("job_data", "progress", "job_data", "progress")
+                .then(() -> assertThat(dispatcher.queuedTasks()).isEqualTo(2))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(dispatcher.queuedTasks()).isZero();
+        assertThat(service.activeStreams()).isZero();
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.jobscraperapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.jobscraperapi.config.ScraperProperties;
+import org.example.jobscraperapi.model.SiteResult;
+import org.example.jobscraperapi.scraper.ScrapeMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SiteLimiterTests {
+
+    private static final String URL = "https://example.com/occ";
+
+    private ScraperProperties properties;
+    private SiteLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScraperProperties();
+        properties.getLimiter().setFailureThreshold(3);
+        limiter = new SiteLimiter(properties, new ScrapeMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static SiteResult blocked() {
+        return SiteResult.blocked("occ", URL, "HTTP 429");
+    }
+
+    @Test
+    void refusalsCutConcurrencyAndSuccessesGrowItBack() {
+        assertThat(limiter.concurrency("occ", 8)).isEqualTo(8);
+
+        limiter.record("occ", 8, blocked());
+        assertThat(limiter.concurrency("occ", 8)).isEqualTo(4);
+        assertThat(limiter.backoffNanos("occ")).isPositive();
+        // Other sites are not affected
+        assertThat(limiter.concurrency("computrabajo", 8)).isEqualTo(8);
+        assertThat(limiter.backoffNanos("computrabajo")).isZero();
+
+        for (int i = 0; i < 40; i++) {
+            limiter.record("occ", 8, SiteResult.success("occ", URL, List.of()));
+        }
+        assertThat(limiter.concurrency("occ", 8)).isEqualTo(8);
+        assertThat(limiter.backoffNanos("occ")).isZero();
+    }
+
+    @Test
+    void refusalBeforeTheFirstConcurrencyCutsFromTheSiteMaximum() {
+        // The sequential scraper never asks for the concurrency before recording pages
+        limiter.record("occ", 8, blocked());
+
+        assertThat(limiter.concurrency("occ", 8)).isEqualTo(4);
+    }
+
+    @Test
+    void timeoutsAreRefusalsButOtherFailuresAreNot() {
+        limiter.record("occ", 8, SiteResult.failed("occ", URL, "Timeout while parsing the cards"));
+        assertThat(limiter.concurrency("occ", 8)).isEqualTo(8);
+
+        limiter.record("occ", 8, SiteResult.timedOut("occ", URL, "Timeout 30000ms exceeded."));
+        assertThat(limiter.concurrency("occ", 8)).isEqualTo(4);
+    }
+
+    @Test
+    void openCircuitAnswersWithoutScrapingUntilProbeSucceeds() throws Exception {
+        properties.getLimiter().setOpenDuration(Duration.ZERO);
+        for (int i = 0; i < 3; i++) {
+            limiter.guard("occ", 8, URL, SiteLimiterTests::blocked);
+        }
+
+        // Past the open duration a single probe goes through while the others wait
+        assertThat(limiter.tryAcquire("occ")).isTrue();
+        assertThat(limiter.tryAcquire("occ")).isFalse();
+        limiter.record("occ", 8, SiteResult.success("occ", URL, List.of()));
+        assertThat(limiter.tryAcquire("occ")).isTrue();
+    }
+
+    @Test
+    void openCircuitSkipsTheScrape() throws Exception {
+        AtomicInteger scrapes = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            limiter.guard("occ", 8, URL, () -> {
+                scrapes.incrementAndGet();
+                return blocked();
+            });
+        }
+
+        assertThat(scrapes).hasValue(3);
+        SiteResult result = limiter.guard("occ", 8, URL, () -> {
+            scrapes.incrementAndGet();
+            return blocked();
+        });
+        assertThat(result.status()).isEqualTo(SiteResult.UNAVAILABLE);
+        assertThat(scrapes).hasValue(3);
+    }
+}